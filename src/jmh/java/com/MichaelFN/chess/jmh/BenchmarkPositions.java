@@ -0,0 +1,45 @@
+package com.MichaelFN.chess.jmh;
+
+import com.MichaelFN.chess.v5.board.Board;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Positions the benchmarks run over, selected with the positionSet parameter.
+ * Paths are relative to the project root, so run the benchmarks from there.
+ */
+public class BenchmarkPositions {
+    public static final String POSITIONS = "positions";
+    public static final String PERFT_SUITE = "perftsuite";
+
+    public static List<String> loadFENs(String positionSet) {
+        try {
+            return switch (positionSet) {
+                case POSITIONS -> Files.readAllLines(Paths.get("src/main/resources/100ChessPositions.csv")).stream()
+                        .skip(1)
+                        .map(line -> line.split(",")[0].trim())
+                        .toList();
+                case PERFT_SUITE -> Files.readAllLines(Paths.get("src/test/resources/perftsuite.epd")).stream()
+                        .map(line -> line.split(";")[0].trim())
+                        .toList();
+                default -> throw new IllegalArgumentException("Unknown position set: " + positionSet);
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + positionSet + ", run the benchmarks from the project root", e);
+        }
+    }
+
+    public static Board[] loadBoards(String positionSet) {
+        List<String> FENs = loadFENs(positionSet);
+        Board[] boards = new Board[FENs.size()];
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = new Board();
+            boards[i].parseFEN(FENs.get(i));
+        }
+        return boards;
+    }
+}
@@ -0,0 +1,47 @@
+package com.MichaelFN.chess.jmh;
+
+import com.MichaelFN.chess.v5.board.Board;
+import com.MichaelFN.chess.v5.move.MoveGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Makes and unmakes every legal move of every position
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    @Param({BenchmarkPositions.POSITIONS, BenchmarkPositions.PERFT_SUITE})
+    public String positionSet;
+
+    private Board[] boards;
+    private int[][] moves;
+
+    @Setup
+    public void setup() {
+        boards = BenchmarkPositions.loadBoards(positionSet);
+        moves = new int[boards.length][];
+        MoveGenerator moveGenerator = new MoveGenerator();
+        for (int i = 0; i < boards.length; i++) {
+            moveGenerator.generateLegalMoves(boards[i], 0);
+            moves[i] = Arrays.copyOf(moveGenerator.legalMoves[0], moveGenerator.legalMoveCounts[0]);
+        }
+    }
+
+    @Benchmark
+    public void makeUnmakeMove(Blackhole blackhole) {
+        for (int i = 0; i < boards.length; i++) {
+            Board board = boards[i];
+            for (int move : moves[i]) {
+                board.makeMove(move);
+                blackhole.consume(board.hashKey);
+                board.unmakeMove();
+            }
+        }
+    }
+}
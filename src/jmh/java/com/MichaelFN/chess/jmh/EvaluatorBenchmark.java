@@ -0,0 +1,37 @@
+package com.MichaelFN.chess.jmh;
+
+import com.MichaelFN.chess.v5.board.Board;
+import com.MichaelFN.chess.v5.search.Evaluator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+    @Param({BenchmarkPositions.POSITIONS, BenchmarkPositions.PERFT_SUITE})
+    public String positionSet;
+
+    private final Evaluator evaluator = new Evaluator();
+    private Board[] boards;
+
+    @Setup
+    public void setup() {
+        boards = BenchmarkPositions.loadBoards(positionSet);
+    }
+
+    @Benchmark
+    public void evaluate(Blackhole blackhole) {
+        for (Board board : boards) blackhole.consume(evaluator.evaluate(board));
+    }
+
+    @Benchmark
+    public void evaluateFromScratch(Blackhole blackhole) {
+        for (Board board : boards) blackhole.consume(evaluator.evaluateFromScratch(board));
+    }
+}
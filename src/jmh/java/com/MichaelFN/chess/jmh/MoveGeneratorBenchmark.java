@@ -0,0 +1,58 @@
+package com.MichaelFN.chess.jmh;
+
+import com.MichaelFN.chess.v5.Utils;
+import com.MichaelFN.chess.v5.board.Board;
+import com.MichaelFN.chess.v5.move.MoveGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.MichaelFN.chess.v5.Constants.*;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGeneratorBenchmark {
+    @Param({BenchmarkPositions.POSITIONS, BenchmarkPositions.PERFT_SUITE})
+    public String positionSet;
+
+    private final MoveGenerator moveGenerator = new MoveGenerator();
+    private Board[] boards;
+
+    @Setup
+    public void setup() {
+        boards = BenchmarkPositions.loadBoards(positionSet);
+    }
+
+    @Benchmark
+    public void generateLegalMoves(Blackhole blackhole) {
+        for (Board board : boards) {
+            moveGenerator.generateLegalMoves(board, 0);
+            blackhole.consume(moveGenerator.legalMoveCounts[0]);
+        }
+    }
+
+    @Benchmark
+    public void generateLegalCaptures(Blackhole blackhole) {
+        for (Board board : boards) {
+            moveGenerator.generateLegalCaptures(board, 0);
+            blackhole.consume(moveGenerator.legalMoveCounts[0]);
+        }
+    }
+
+    // Every square of every position, attacked by the side not to move
+    @Benchmark
+    public void isSquareAttacked(Blackhole blackhole) {
+        for (Board board : boards) {
+            int opponent = 1 - board.playerToMove;
+            long occupancy = board.pieces[WHITE][ALL_PIECES] | board.pieces[BLACK][ALL_PIECES];
+            for (int square = 0; square < 64; square++) {
+                blackhole.consume(Utils.isSquareAttacked(board, square, opponent, occupancy));
+            }
+        }
+    }
+}
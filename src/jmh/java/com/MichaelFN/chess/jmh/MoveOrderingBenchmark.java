@@ -0,0 +1,81 @@
+package com.MichaelFN.chess.jmh;
+
+import com.MichaelFN.chess.v5.board.Board;
+import com.MichaelFN.chess.v5.move.MoveGenerator;
+import com.MichaelFN.chess.v5.search.MoveOrdering;
+import com.MichaelFN.chess.v6.MovePicker;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.MichaelFN.chess.v5.Constants.*;
+
+/**
+ * Ordering cost at a cut node (only the first move is needed) and at an all node (every move is needed),
+ * for the v5 score-and-pick ordering and the staged v6 move picker. Includes move generation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveOrderingBenchmark {
+    @Param({BenchmarkPositions.POSITIONS, BenchmarkPositions.PERFT_SUITE})
+    public String positionSet;
+
+    private final MoveGenerator moveGenerator = new MoveGenerator();
+    private final MovePicker movePicker = new MovePicker(moveGenerator, 0);
+    private final int[] scores = new int[MAX_MOVES_IN_POSITION];
+    private final int[] killers = new int[2];
+    private final int[][] historyHeuristic = new int[7][64];
+    private Board[] boards;
+
+    @Setup
+    public void setup() {
+        boards = BenchmarkPositions.loadBoards(positionSet);
+    }
+
+    @Benchmark
+    public void v5FirstMove(Blackhole blackhole) {
+        for (Board board : boards) {
+            int moveCount = generateAndScore(board);
+            if (moveCount > 0) blackhole.consume(MoveOrdering.pickNext(moveCount, moveGenerator.legalMoves[0], scores, 0));
+        }
+    }
+
+    @Benchmark
+    public void v5AllMoves(Blackhole blackhole) {
+        for (Board board : boards) {
+            int moveCount = generateAndScore(board);
+            for (int i = 0; i < moveCount; i++) {
+                blackhole.consume(MoveOrdering.pickNext(moveCount, moveGenerator.legalMoves[0], scores, i));
+            }
+        }
+    }
+
+    @Benchmark
+    public void v6FirstMove(Blackhole blackhole) {
+        for (Board board : boards) {
+            movePicker.init(board, 0, 0, killers, historyHeuristic);
+            blackhole.consume(movePicker.next());
+        }
+    }
+
+    @Benchmark
+    public void v6AllMoves(Blackhole blackhole) {
+        for (Board board : boards) {
+            movePicker.init(board, 0, 0, killers, historyHeuristic);
+            int move;
+            while ((move = movePicker.next()) != 0) blackhole.consume(move);
+        }
+    }
+
+    private int generateAndScore(Board board) {
+        moveGenerator.generateLegalMoves(board, 0);
+        int moveCount = moveGenerator.legalMoveCounts[0];
+        MoveOrdering.scoreMoves(moveCount, moveGenerator.legalMoves[0], scores, 0, 0, board);
+        return moveCount;
+    }
+}
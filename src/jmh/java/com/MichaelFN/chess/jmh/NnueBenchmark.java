@@ -0,0 +1,58 @@
+package com.MichaelFN.chess.jmh;
+
+import com.MichaelFN.chess.v5.board.Board;
+import com.MichaelFN.chess.v5.nnue.NnueEvaluator;
+import com.MichaelFN.chess.v5.nnue.NnueKernels;
+import com.MichaelFN.chess.v5.nnue.NnueNetwork;
+import com.MichaelFN.chess.v5.nnue.ScalarKernels;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluations per second of the NNUE evaluator with a random network, with the vectorized and the scalar kernels.
+ * evaluate only runs the output layer on accumulators that are up to date, as in the search.
+ * refreshAndEvaluate recomputes the accumulators from all pieces first.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class NnueBenchmark {
+    @Param({"vector", "scalar"})
+    public String kernels;
+
+    private NnueEvaluator evaluator;
+    private Board[] boards;
+
+    @Setup
+    public void setup() {
+        NnueNetwork network = NnueNetwork.random(7);
+        evaluator = new NnueEvaluator(network, kernels.equals("vector") ? NnueKernels.create(true) : new ScalarKernels());
+        if (!evaluator.getKernelName().startsWith(kernels)) {
+            throw new IllegalStateException("Vector kernels not available, build with -Pjmh,vector. Kernels: " + evaluator.getKernelName());
+        }
+
+        boards = BenchmarkPositions.loadBoards(BenchmarkPositions.POSITIONS);
+        for (Board board : boards) evaluator.evaluate(board);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void evaluate(Blackhole blackhole) {
+        for (int i = 0; i < 100; i++) blackhole.consume(evaluator.evaluate(boards[i % boards.length]));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void refreshAndEvaluate(Blackhole blackhole) {
+        for (int i = 0; i < 100; i++) {
+            Board board = boards[i % boards.length];
+            board.accumulator.refresh(board);
+            blackhole.consume(evaluator.evaluate(board));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.MichaelFN.chess.jmh;
+
+import com.MichaelFN.chess.v5.board.Board;
+import com.MichaelFN.chess.v5.move.MoveGenerator;
+import com.MichaelFN.chess.v5.search.TTEntry;
+import com.MichaelFN.chess.v5.search.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Keys of every position and the positions one legal move away
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranspositionTableBenchmark {
+    @Param({BenchmarkPositions.POSITIONS, BenchmarkPositions.PERFT_SUITE})
+    public String positionSet;
+
+    @Param({"64"})
+    public int sizeInMB;
+
+    private TranspositionTable transpositionTable;
+    private long[] keys;
+    private int[] bestMoves;
+
+    @Setup
+    public void setup() {
+        transpositionTable = new TranspositionTable(sizeInMB);
+        MoveGenerator moveGenerator = new MoveGenerator();
+        keys = new long[0];
+        bestMoves = new int[0];
+        for (Board board : BenchmarkPositions.loadBoards(positionSet)) {
+            moveGenerator.generateLegalMoves(board, 0);
+            int n_moves = moveGenerator.legalMoveCounts[0];
+            int n_keys = keys.length;
+            keys = Arrays.copyOf(keys, n_keys + n_moves + 1);
+            bestMoves = Arrays.copyOf(bestMoves, n_keys + n_moves + 1);
+            keys[n_keys] = board.hashKey;
+            for (int i = 0; i < n_moves; i++) {
+                int move = moveGenerator.legalMoves[0][i];
+                board.makeMove(move);
+                keys[n_keys + i + 1] = board.hashKey;
+                bestMoves[n_keys + i + 1] = move;
+                board.unmakeMove();
+            }
+        }
+        put();
+    }
+
+    @Benchmark
+    public void put() {
+        for (int i = 0; i < keys.length; i++) {
+            transpositionTable.put(keys[i], i & 31, i, TTEntry.EXACT, bestMoves[i]);
+        }
+    }
+
+    @Benchmark
+    public void get(Blackhole blackhole) {
+        for (long key : keys) blackhole.consume(transpositionTable.get(key));
+    }
+}
@@ -14,10 +14,11 @@ import static com.MichaelFN.chess.common.Constants.*;
 
 public class Main {
     public static void main(String[] args) throws IOException {
-        //Arena arena = new Arena(new BoardState());
+        //Arena arena = new Arena(Runtime.getRuntime().availableProcessors());
         //arena.runTournament(2, 100);
         //arena.runOneVsAll(5, 5, 100);
         //arena.playOneVsOne(VERSION_5, VERSION_6, 5, 200);
+        //arena.runSprt(VERSION_6, VERSION_5, 0, 10, 0.05, 0.05, 10000, 50);
 
         SwingUtilities.invokeLater(() -> new GUI(new BoardState()));
     }
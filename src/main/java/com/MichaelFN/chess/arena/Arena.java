@@ -1,6 +1,6 @@
 package com.MichaelFN.chess.arena;
 
-import com.MichaelFN.chess.v1.BoardState;
+import com.MichaelFN.chess.interfaces.Engine;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -8,15 +8,31 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import static com.MichaelFN.chess.common.Constants.ALL_ENGINES;
+import static com.MichaelFN.chess.common.Constants.ENGINE_FACTORIES;
 
 public class Arena {
-    private MatchManager manager;
+    private static final int MAX_POSITIONS = 100;
 
-    public Arena(BoardState boardState) {
-        manager = new MatchManager(boardState);
+    private final GameScheduler scheduler;
+    private int gamesFinished;
+
+    public Arena() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public Arena(int workers) {
+        this(ENGINE_FACTORIES, workers);
+    }
+
+    // Factories must be in the same order as ALL_ENGINES, which is used for the names
+    public Arena(List<Supplier<Engine>> engineFactories, int workers) {
+        scheduler = new GameScheduler(engineFactories, workers);
     }
 
     public int[][][] playOneVsOne(int version1, int version2, int n_positions, int engineSearchTimeMS) {
@@ -36,24 +52,12 @@ public class Arena {
             return null;
         }
 
-        int matchCounter = 1;
+        List<GameScheduler.Game> games = new ArrayList<>();
         for (String initialPosition : equalPositions) {
-            System.out.print("1v1 Match " + matchCounter++ + " / " + n_positions*2 + ": ");
-            playMatchAndSaveResult(whitePoints, blackPoints, version1 - 1, version2 - 1, engineSearchTimeMS, initialPosition);
-
-            System.out.print("1v1 Match " + matchCounter++ + " / " + n_positions*2 + ": ");
-            playMatchAndSaveResult(whitePoints, blackPoints, version2 - 1, version1 - 1, engineSearchTimeMS, initialPosition);
+            games.add(new GameScheduler.Game(version1 - 1, version2 - 1, initialPosition));
+            games.add(new GameScheduler.Game(version2 - 1, version1 - 1, initialPosition));
         }
-
-        String[] names = collectEngineNames(n_engines);
-        int v1White_v2Black = whitePoints[version1 - 1][version2 - 1];
-        int v2Black_v1White = blackPoints[version2 - 1][version1 - 1];
-
-        int v2White_v1Black = whitePoints[version2 - 1][version1 - 1];
-        int v1Black_v2White = blackPoints[version1 - 1][version2 - 1];
-
-        int v1Total = v1White_v2Black + v1Black_v2White;
-        int v2Total = v2White_v1Black + v2Black_v1White;
+        playGames(games, whitePoints, blackPoints, engineSearchTimeMS, "1v1 Match ");
 
         System.out.println("\nResults for 1v1 match:");
         printResults(whitePoints, blackPoints, collectEngineNames(n_engines));
@@ -80,27 +84,15 @@ public class Arena {
             return null;
         }
 
-        int n_matches = n_engines * n_engines * n_positions;
-        int matchCounter = 1;
-
+        List<GameScheduler.Game> games = new ArrayList<>();
         for (int i = 0; i < n_engines; i++) {
             for (int j = 0; j < n_engines; j++) {
                 for (String initialPosition : equalPositions) {
-                    System.out.print("Match " + matchCounter++ + " / " + n_matches + ":  ");
-                    MatchResult matchResult = manager.playMatch(ALL_ENGINES[i], ALL_ENGINES[j], engineSearchTimeMS, initialPosition);
-
-                    // Update points properly
-                    if (matchResult == MatchResult.DRAW) {
-                        whitePoints[i][j] += 5;
-                        blackPoints[i][j] += 5;
-                    } else if (matchResult == MatchResult.WHITE_WIN) {
-                        whitePoints[i][j] += 10;
-                    } else if (matchResult == MatchResult.BLACK_WIN) {
-                        blackPoints[i][j] += 10;
-                    }
+                    games.add(new GameScheduler.Game(i, j, initialPosition));
                 }
             }
         }
+        playGames(games, whitePoints, blackPoints, engineSearchTimeMS, "Match ");
 
         printResults(whitePoints, blackPoints, engineNames);
 
@@ -126,33 +118,104 @@ public class Arena {
             return null;
         }
 
-        n_positions = equalPositions.size();
-        int n_matches = n_engines * n_positions * 2 - n_positions;
-        int matchCounter = 1;
-
+        List<GameScheduler.Game> games = new ArrayList<>();
         for (int i = 0; i < n_engines; i++) {
             for (String initialPosition : equalPositions) {
-
-                System.out.print("Match " + matchCounter++ + " / " + n_matches + ":  ");
-                playMatchAndSaveResult(whitePoints, blackPoints, versionNumber - 1, i, engineSearchTimeMS, initialPosition);
+                games.add(new GameScheduler.Game(versionNumber - 1, i, initialPosition));
 
                 if (i == versionNumber - 1) continue;
 
                 // Switch sides
-                System.out.print("Match " + matchCounter++ + " / " + n_matches + ":  ");
-                playMatchAndSaveResult(whitePoints, blackPoints, i, versionNumber - 1, engineSearchTimeMS, initialPosition);
+                games.add(new GameScheduler.Game(i, versionNumber - 1, initialPosition));
             }
         }
+        playGames(games, whitePoints, blackPoints, engineSearchTimeMS, "Match ");
 
         printResults(whitePoints, blackPoints, engineNames);
 
         return new int[][][] {whitePoints, blackPoints};
     }
 
-    private void playMatchAndSaveResult(int[][] whitePoints, int[][] blackPoints,
-                                               int whiteEngineIdx, int blackEngineIdx,
-                                               int engineSearchTimeMS, String initialPosition) {
-        MatchResult matchResult = manager.playMatch(ALL_ENGINES[whiteEngineIdx], ALL_ENGINES[blackEngineIdx], engineSearchTimeMS, initialPosition);
+    // Plays game pairs until the test accepts a hypothesis or maxPairs pairs are played
+    public Sprt.Status runSprt(int testedVersion, int baseVersion, double elo0, double elo1, double alpha, double beta,
+                               int maxPairs, int engineSearchTimeMS) {
+        List<String> openings;
+        try {
+            openings = readChessPositions(MAX_POSITIONS);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read positions", e);
+        }
+        if (openings == null || openings.isEmpty()) {
+            System.out.println("No positions loaded for SPRT.");
+            return Sprt.Status.CONTINUE;
+        }
+
+        Sprt sprt = new Sprt(elo0, elo1, alpha, beta);
+        System.out.printf("SPRT %s vs %s: elo0 %.1f, elo1 %.1f, alpha %.3f, beta %.3f, LLR bounds [%.2f, %.2f]%n",
+                ALL_ENGINES[testedVersion - 1], ALL_ENGINES[baseVersion - 1], elo0, elo1, alpha, beta,
+                sprt.getLowerBound(), sprt.getUpperBound());
+
+        // A batch keeps every worker busy. The bounds are checked between batches, so a few extra pairs may be played.
+        int pairsPerBatch = scheduler.getWorkers();
+        int pairsPlayed = 0;
+        while (pairsPlayed < maxPairs && sprt.getStatus() == Sprt.Status.CONTINUE) {
+            int n_pairs = Math.min(pairsPerBatch, maxPairs - pairsPlayed);
+
+            List<GameScheduler.Game> games = new ArrayList<>();
+            Map<GameScheduler.Game, Integer> pairOfGame = new IdentityHashMap<>();
+            for (int pair = 0; pair < n_pairs; pair++) {
+                String opening = openings.get((pairsPlayed + pair) % openings.size());
+                GameScheduler.Game testedAsWhite = new GameScheduler.Game(testedVersion - 1, baseVersion - 1, opening);
+                GameScheduler.Game testedAsBlack = new GameScheduler.Game(baseVersion - 1, testedVersion - 1, opening);
+                games.add(testedAsWhite);
+                games.add(testedAsBlack);
+                pairOfGame.put(testedAsWhite, pair);
+                pairOfGame.put(testedAsBlack, pair);
+            }
+
+            int[] firstGameHalfPoints = new int[n_pairs];
+            Arrays.fill(firstGameHalfPoints, -1);
+            scheduler.playAll(games, engineSearchTimeMS, (game, matchResult) ->
+                    saveSprtResult(sprt, firstGameHalfPoints, pairOfGame.get(game),
+                            Sprt.halfPoints(matchResult, game.whiteEngineIdx() == testedVersion - 1)));
+            pairsPlayed += n_pairs;
+        }
+
+        Sprt.Status status = sprt.getStatus();
+        System.out.println("SPRT finished after " + sprt.getPairs() * 2 + " games: " + switch (status) {
+            case ACCEPT_H1 -> "H1 accepted, " + ALL_ENGINES[testedVersion - 1] + " is stronger.";
+            case ACCEPT_H0 -> "H0 accepted, " + ALL_ENGINES[testedVersion - 1] + " is not stronger.";
+            case CONTINUE -> "no bound reached within " + maxPairs + " pairs.";
+        });
+        return status;
+    }
+
+    // Called from the game workers. A pair counts once both of its games are finished.
+    private synchronized void saveSprtResult(Sprt sprt, int[] firstGameHalfPoints, int pair, int halfPoints) {
+        if (firstGameHalfPoints[pair] == -1) {
+            firstGameHalfPoints[pair] = halfPoints;
+            return;
+        }
+        sprt.addPair(firstGameHalfPoints[pair] + halfPoints);
+
+        int[] pentanomial = sprt.getPentanomial();
+        System.out.printf("SPRT games %d: pentanomial %s, Elo %.1f +/- %.1f, LLR %.2f [%.2f, %.2f]%n",
+                sprt.getPairs() * 2, Arrays.toString(pentanomial), sprt.getElo(), sprt.getEloError(),
+                sprt.getLLR(), sprt.getLowerBound(), sprt.getUpperBound());
+    }
+
+    private void playGames(List<GameScheduler.Game> games, int[][] whitePoints, int[][] blackPoints,
+                           int engineSearchTimeMS, String label) {
+        gamesFinished = 0;
+        scheduler.playAll(games, engineSearchTimeMS, (game, matchResult) ->
+                saveResult(whitePoints, blackPoints, game, matchResult, games.size(), label));
+    }
+
+    // Called from the game workers
+    private synchronized void saveResult(int[][] whitePoints, int[][] blackPoints, GameScheduler.Game game,
+                                         MatchResult matchResult, int n_matches, String label) {
+        int whiteEngineIdx = game.whiteEngineIdx();
+        int blackEngineIdx = game.blackEngineIdx();
 
         if (matchResult == MatchResult.DRAW) {
             whitePoints[whiteEngineIdx][blackEngineIdx] += 5;
@@ -162,6 +225,14 @@ public class Arena {
         } else if (matchResult == MatchResult.BLACK_WIN) {
             blackPoints[whiteEngineIdx][blackEngineIdx] += 10;
         }
+
+        String winner = switch (matchResult) {
+            case WHITE_WIN -> "White";
+            case BLACK_WIN -> "Black";
+            case DRAW -> "Draw";
+        };
+        System.out.println(label + ++gamesFinished + " / " + n_matches + ":  Match between " + ALL_ENGINES[whiteEngineIdx] +
+                " and " + ALL_ENGINES[blackEngineIdx] + ". Winner: " + winner);
     }
 
     private List<String> readChessPositions(int n) throws IOException {
@@ -0,0 +1,30 @@
+package com.MichaelFN.chess.arena;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One arena game, recorded by Java Flight Recorder. The event's duration is the length of the game.
+ */
+@Name("com.MichaelFN.chess.Game")
+@Label("Arena Game")
+@Category({"Chess", "Arena"})
+@StackTrace(false)
+class GameEvent extends jdk.jfr.Event {
+    @Label("White")
+    String white;
+
+    @Label("Black")
+    String black;
+
+    @Label("Opening")
+    String openingFEN;
+
+    @Label("Result")
+    String result;
+
+    @Label("Plies")
+    int plies;
+}
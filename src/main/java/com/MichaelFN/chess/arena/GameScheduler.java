@@ -0,0 +1,71 @@
+package com.MichaelFN.chess.arena;
+
+import com.MichaelFN.chess.interfaces.Engine;
+import com.MichaelFN.chess.v5.board.Board;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Plays arena games concurrently on a fixed number of workers.
+ * Every game gets fresh engine instances from the factories and its own referee board, so games share no state.
+ * The engines search silently, games running at the same time would otherwise mix their output.
+ * Only the engine to move searches, and engines search on one thread unless configured otherwise,
+ * so one worker per core keeps the search threads within the core budget.
+ */
+public class GameScheduler {
+    private final List<Supplier<Engine>> engineFactories;
+    private final int workers;
+
+    public record Game(int whiteEngineIdx, int blackEngineIdx, String initialPositionFEN) {}
+
+    public GameScheduler(List<Supplier<Engine>> engineFactories, int workers) {
+        if (workers < 1) throw new IllegalArgumentException("Workers must be at least 1: " + workers);
+        this.engineFactories = engineFactories;
+        this.workers = workers;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    // Blocks until every game is finished. onResult is called from the worker threads as games finish.
+    public void playAll(List<Game> games, int engineSearchTimeMS, BiConsumer<Game, MatchResult> onResult) {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(workers, Math.max(games.size(), 1)), runnable -> {
+            Thread thread = new Thread(runnable, "arena-game");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<?>> results = new ArrayList<>(games.size());
+            for (Game game : games) {
+                results.add(pool.submit(() -> onResult.accept(game, play(game, engineSearchTimeMS))));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Arena game failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    public MatchResult play(Game game, int engineSearchTimeMS) {
+        Engine white = engineFactories.get(game.whiteEngineIdx()).get();
+        Engine black = engineFactories.get(game.blackEngineIdx()).get();
+        white.setSearchOutput(false);
+        black.setSearchOutput(false);
+        MatchManager manager = new MatchManager(new Board());
+        return manager.playMatch(white, black, engineSearchTimeMS, game.initialPositionFEN());
+    }
+}
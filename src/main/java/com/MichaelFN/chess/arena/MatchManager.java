@@ -1,49 +1,72 @@
 package com.MichaelFN.chess.arena;
 
 import com.MichaelFN.chess.interfaces.Engine;
-import com.MichaelFN.chess.v1.*;
-import com.MichaelFN.chess.v5.Constants;
+import com.MichaelFN.chess.v5.Utils;
+import com.MichaelFN.chess.v5.board.Board;
+import com.MichaelFN.chess.v5.move.MoveGenerator;
 
 import java.util.Stack;
 
+import static com.MichaelFN.chess.v5.Constants.*;
+
 public class MatchManager {
+    /**
+     * Referees games on the bitboard representation.
+     * The legal moves of the current position are generated once per ply. They decide whether the game is over
+     * and are used to validate the engine's move, so no make/unmake legality checks are needed.
+     */
 
-    private BoardState boardState;
-    private Stack<String> moveHistory;
+    private final Board board;
+    private final MoveGenerator moveGenerator = new MoveGenerator();
+    private final Stack<String> moveHistory;
     private String initialPositionFEN;
 
-    public MatchManager(BoardState boardState) {
-        this.boardState = boardState;
+    public MatchManager(Board board) {
+        this.board = board;
         this.moveHistory = new Stack<>();
-        this.initialPositionFEN = boardState.generateFenString();
+        this.initialPositionFEN = board.generateFENString();
     }
 
     public MatchResult playMatch(Engine white, Engine black, int engineSearchTimeMS) {
+        GameEvent event = new GameEvent();
+        event.begin();
+
+        MatchResult result = playGame(white, black, engineSearchTimeMS);
+
+        if (event.shouldCommit()) {
+            event.white = white.getEngineName();
+            event.black = black.getEngineName();
+            event.openingFEN = initialPositionFEN;
+            event.result = result.name();
+            event.plies = moveHistory.size();
+            event.commit();
+        }
+        return result;
+    }
+
+    private MatchResult playGame(Engine white, Engine black, int engineSearchTimeMS) {
         reset();
 
         white.clear();
         black.clear();
 
-        System.out.print("Match between " + white + " and " + black);
-        while (!boardState.isGameOver()) {
-            Engine engineToMove = boardState.getPlayerToMove() == Color.WHITE ? white : black;
-            makeEngineMove(engineToMove, engineSearchTimeMS);
-        }
+        while (true) {
+            moveGenerator.generateLegalMoves(board, 0);
 
-        System.out.print(". Winner: ");
-        if (boardState.isCheckmate()) {
-            MatchResult result;
-            if (boardState.getPlayerToMove() == Color.WHITE) {
-                result = MatchResult.BLACK_WIN;
-                System.out.println("Black");
-            } else {
-                result = MatchResult.WHITE_WIN;
-                System.out.println("White");
+            if (moveGenerator.legalMoveCounts[0] == 0) {
+                if (!Utils.isInCheck(board, board.playerToMove)) return MatchResult.DRAW;
+                return board.playerToMove == WHITE ? MatchResult.BLACK_WIN : MatchResult.WHITE_WIN;
+            }
+            if (board.isRepetition() || board.fiftyMoveRule() || board.isInsufficientMaterial()) {
+                return MatchResult.DRAW;
+            }
+
+            Engine engineToMove = board.playerToMove == WHITE ? white : black;
+            if (!makeEngineMove(engineToMove, engineSearchTimeMS)) {
+                // An illegal move forfeits the game
+                return board.playerToMove == WHITE ? MatchResult.BLACK_WIN : MatchResult.WHITE_WIN;
             }
-            return result;
         }
-        System.out.println("Draw");
-        return MatchResult.DRAW;
     }
 
     public MatchResult playMatch(Engine white, Engine black, int engineSearchTimeMS, String initialPositionFEN) {
@@ -51,20 +74,26 @@ public class MatchManager {
         return playMatch(white, black, engineSearchTimeMS);
     }
 
-    public void makeEngineMove(Engine engine, int engineSearchTimeMS) {
+    // Expects the legal moves of the current position at ply 0
+    private boolean makeEngineMove(Engine engine, int engineSearchTimeMS) {
         engine.setPosition(initialPositionFEN, moveHistory);
-        engine.startSearch(Constants.MAX_SEARCH_DEPTH, engineSearchTimeMS);
+        engine.startSearch(MAX_SEARCH_DEPTH, engineSearchTimeMS);
         String uciMove = engine.getMove();
-        Move move = Utils.uciToMove(uciMove, boardState);
+        if (uciMove == null) return false;
 
-        if (!boardState.isLegalMove(move)) return;
-
-        boardState.makeMove(move);
-        moveHistory.push(uciMove);
+        int[] legalMoves = moveGenerator.legalMoves[0];
+        for (int i = 0; i < moveGenerator.legalMoveCounts[0]; i++) {
+            if (Utils.moveToUci(legalMoves[i]).equals(uciMove)) {
+                board.makeMove(legalMoves[i]);
+                moveHistory.push(uciMove);
+                return true;
+            }
+        }
+        return false;
     }
 
     public void reset() {
-        boardState.parseFEN(initialPositionFEN);
+        board.parseFEN(initialPositionFEN);
         moveHistory.clear();
     }
 
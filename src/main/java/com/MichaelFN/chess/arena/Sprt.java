@@ -0,0 +1,136 @@
+package com.MichaelFN.chess.arena;
+
+public class Sprt {
+    /**
+     * Sequential probability ratio test between two Elo hypotheses, H0: elo = elo0 and H1: elo = elo1.
+     * Games are played in pairs (same opening, colors switched), and every pair scores 0, 0.5, 1, 1.5 or 2
+     * for the tested engine. Counting pairs instead of games (pentanomial statistics) removes most of the
+     * variance caused by unbalanced openings.
+     *
+     * The log-likelihood ratio uses the normal approximation of the generalized SPRT:
+     * LLR = N * ((mu - s0)^2 - (mu - s1)^2) / (2 * var), with mu and var the mean and variance of the pair score.
+     * The test accepts H1 when the LLR passes log((1 - beta) / alpha), and H0 when it drops below log(beta / (1 - alpha)).
+     *
+     * Read more: <a href="https://www.chessprogramming.org/Sequential_Probability_Ratio_Test">...</a>
+     */
+
+    public enum Status { CONTINUE, ACCEPT_H0, ACCEPT_H1 }
+
+    // Pair scores 0, 0.5, 1, 1.5, 2 as a fraction of the maximum
+    private static final double[] PAIR_SCORES = {0, 0.25, 0.5, 0.75, 1};
+
+    // Added to every count so empty categories do not give a zero variance
+    private static final double REGULARIZATION = 1e-3;
+
+    // The variance estimate of the first few pairs is too unreliable to stop on
+    private static final int MIN_PAIRS = 10;
+
+    private static final double Z_95 = 1.959964;
+
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+
+    private final int[] pentanomial = new int[5];
+
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo0 >= elo1) throw new IllegalArgumentException("elo0 must be below elo1: " + elo0 + ", " + elo1);
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    // pairPoints counts half points: 0 = two losses, 4 = two wins
+    public void addPair(int pairPoints) {
+        pentanomial[pairPoints]++;
+    }
+
+    public static int halfPoints(MatchResult result, boolean testedEngineIsWhite) {
+        if (result == MatchResult.DRAW) return 1;
+        return (result == MatchResult.WHITE_WIN) == testedEngineIsWhite ? 2 : 0;
+    }
+
+    public Status getStatus() {
+        if (getPairs() < MIN_PAIRS) return Status.CONTINUE;
+        double llr = getLLR();
+        if (llr >= upperBound) return Status.ACCEPT_H1;
+        if (llr <= lowerBound) return Status.ACCEPT_H0;
+        return Status.CONTINUE;
+    }
+
+    public double getLLR() {
+        int pairs = getPairs();
+        if (pairs == 0) return 0;
+
+        double mean = getMeanScore();
+        double variance = getVariance(mean);
+        double s0 = expectedScore(elo0);
+        double s1 = expectedScore(elo1);
+        return pairs * ((mean - s0) * (mean - s0) - (mean - s1) * (mean - s1)) / (2 * variance);
+    }
+
+    public double getElo() {
+        return elo(getMeanScore());
+    }
+
+    // Half the width of the 95% confidence interval
+    public double getEloError() {
+        int pairs = getPairs();
+        if (pairs == 0) return Double.POSITIVE_INFINITY;
+
+        double mean = getMeanScore();
+        double deviation = Z_95 * Math.sqrt(getVariance(mean) / pairs);
+        return (elo(mean + deviation) - elo(mean - deviation)) / 2;
+    }
+
+    public int getPairs() {
+        int pairs = 0;
+        for (int count : pentanomial) pairs += count;
+        return pairs;
+    }
+
+    public int[] getPentanomial() {
+        return pentanomial.clone();
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    private double getMeanScore() {
+        double total = 0;
+        double mean = 0;
+        for (int i = 0; i < 5; i++) {
+            double count = pentanomial[i] + REGULARIZATION;
+            total += count;
+            mean += count * PAIR_SCORES[i];
+        }
+        return mean / total;
+    }
+
+    private double getVariance(double mean) {
+        double total = 0;
+        double variance = 0;
+        for (int i = 0; i < 5; i++) {
+            double count = pentanomial[i] + REGULARIZATION;
+            total += count;
+            variance += count * (PAIR_SCORES[i] - mean) * (PAIR_SCORES[i] - mean);
+        }
+        return variance / total;
+    }
+
+    private static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    private static double elo(double score) {
+        score = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+        return -400 * Math.log10(1 / score - 1);
+    }
+}
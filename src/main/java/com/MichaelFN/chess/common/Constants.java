@@ -8,6 +8,9 @@ import com.MichaelFN.chess.v4.EngineV4;
 import com.MichaelFN.chess.v5.EngineV5;
 import com.MichaelFN.chess.v6.EngineV6;
 
+import java.util.List;
+import java.util.function.Supplier;
+
 public class Constants {
     public static final boolean DEBUG_ENGINES = false;
     public static final boolean DEBUG_SEARCH = true;
@@ -17,6 +20,15 @@ public class Constants {
             new EngineV1(), new EngineV2(), new EngineV3(), new EngineV4(), new EngineV5(), new EngineV6()
     };
 
+    // Hash size of engines created for arena games, many of them can be alive at once
+    public static final int ARENA_HASH_SIZE_MB = 16;
+
+    // Fresh engine instances for concurrent arena games, in the same order as ALL_ENGINES. V1 has no table.
+    public static final List<Supplier<Engine>> ENGINE_FACTORIES = List.of(
+            EngineV1::new, () -> new EngineV2(ARENA_HASH_SIZE_MB), () -> new EngineV3(ARENA_HASH_SIZE_MB),
+            () -> new EngineV4(ARENA_HASH_SIZE_MB), () -> new EngineV5(ARENA_HASH_SIZE_MB), () -> new EngineV6(ARENA_HASH_SIZE_MB)
+    );
+
     public static final int VERSION_1 = 1;
     public static final int VERSION_2 = 2;
     public static final int VERSION_3 = 3;
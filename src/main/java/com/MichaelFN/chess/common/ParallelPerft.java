@@ -0,0 +1,203 @@
+package com.MichaelFN.chess.common;
+
+import com.MichaelFN.chess.v5.board.Board;
+import com.MichaelFN.chess.v5.move.Move;
+import com.MichaelFN.chess.v5.move.MoveGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft on a ForkJoinPool. The tree is split into one task per move for the first splitDepth plies,
+ * every task gets its own copy of the board, and the subtrees below are counted sequentially.
+ * Move generators are not thread-safe, so every worker thread uses its own.
+ *
+ * Usage: ParallelPerft [maxThreads] [maxNodesPerPosition]
+ *        ParallelPerft divide [depth] [threads] [FEN]
+ */
+public class ParallelPerft {
+    private static final int DEFAULT_SPLIT_DEPTH = 2;
+
+    // Subtrees this shallow are cheaper to count than to schedule
+    private static final int MIN_TASK_DEPTH = 3;
+
+    private static final long DEFAULT_MAX_NODES = 50_000_000;
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+    private final ThreadLocal<MoveGenerator> moveGenerators = ThreadLocal.withInitial(MoveGenerator::new);
+
+    public ParallelPerft(int threads) {
+        this(threads, DEFAULT_SPLIT_DEPTH);
+    }
+
+    public ParallelPerft(int threads, int splitDepth) {
+        this.pool = new ForkJoinPool(threads);
+        this.splitDepth = splitDepth;
+    }
+
+    public long perft(Board board, int depth) {
+        return pool.invoke(new PerftTask(new Board(board), depth, 0));
+    }
+
+    // Node count below every root move, in generation order
+    public long[] divide(Board board, int depth, int[] moves) {
+        List<PerftTask> tasks = rootTasks(board, depth, moves);
+        long[] nodes = new long[tasks.size()];
+        pool.invoke(new RecursiveTask<Void>() {
+            @Override
+            protected Void compute() {
+                invokeAll(tasks);
+                return null;
+            }
+        });
+        for (int i = 0; i < nodes.length; i++) nodes[i] = tasks.get(i).join();
+        return nodes;
+    }
+
+    public int[] rootMoves(Board board) {
+        MoveGenerator moveGenerator = new MoveGenerator();
+        moveGenerator.generateLegalMoves(board, 0);
+        return Arrays.copyOf(moveGenerator.legalMoves[0], moveGenerator.legalMoveCounts[0]);
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private List<PerftTask> rootTasks(Board board, int depth, int[] moves) {
+        List<PerftTask> tasks = new ArrayList<>(moves.length);
+        for (int move : moves) {
+            Board child = new Board(board);
+            child.makeMove(move);
+            tasks.add(new PerftTask(child, depth - 1, 1));
+        }
+        return tasks;
+    }
+
+    private class PerftTask extends RecursiveTask<Long> {
+        private final Board board;
+        private final int depth;
+        private final int ply;
+
+        PerftTask(Board board, int depth, int ply) {
+            this.board = board;
+            this.depth = depth;
+            this.ply = ply;
+        }
+
+        @Override
+        protected Long compute() {
+            MoveGenerator moveGenerator = moveGenerators.get();
+            if (ply >= splitDepth || depth <= MIN_TASK_DEPTH) {
+                return Perft.perft(board, depth, moveGenerator);
+            }
+
+            // Copy the moves out, the subtasks may run on this thread and reuse its move generator
+            moveGenerator.generateLegalMoves(board, 0);
+            int[] moves = Arrays.copyOf(moveGenerator.legalMoves[0], moveGenerator.legalMoveCounts[0]);
+
+            List<PerftTask> tasks = new ArrayList<>(moves.length);
+            for (int move : moves) {
+                Board child = new Board(board);
+                child.makeMove(move);
+                tasks.add(new PerftTask(child, depth - 1, ply + 1));
+            }
+
+            long nodes = 0;
+            for (PerftTask task : invokeAll(tasks)) nodes += task.join();
+            return nodes;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("divide")) {
+            int depth = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+            int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            String FEN = args.length > 3 ? String.join(" ", Arrays.copyOfRange(args, 3, args.length)) : null;
+            runDivide(depth, threads, FEN);
+            return;
+        }
+
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long maxNodesPerPosition = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_MAX_NODES;
+        runSuite(maxThreads, maxNodesPerPosition);
+    }
+
+    private static void runDivide(int depth, int threads, String FEN) {
+        Board board = new Board();
+        if (FEN != null) board.parseFEN(FEN);
+
+        ParallelPerft parallelPerft = new ParallelPerft(threads);
+        int[] moves = parallelPerft.rootMoves(board);
+
+        long start = System.nanoTime();
+        long[] nodes = parallelPerft.divide(board, depth, moves);
+        long timeMS = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+        parallelPerft.shutdown();
+
+        long totalNodes = 0;
+        for (int i = 0; i < moves.length; i++) {
+            System.out.println(Move.toString(moves[i]) + ": " + nodes[i]);
+            totalNodes += nodes[i];
+        }
+        System.out.println("\nNodes: " + totalNodes);
+        System.out.println("Time: " + timeMS + " ms");
+        System.out.println("NPS: " + totalNodes * 1000 / timeMS);
+    }
+
+    private static void runSuite(int maxThreads, long maxNodesPerPosition) throws IOException {
+        List<String> perftSuite = Files.readAllLines(Paths.get("src/test/resources/perftsuite.epd"));
+        Board board = new Board();
+
+        long singleThreadTime = 0;
+        StringBuilder results = new StringBuilder();
+        results.append(String.format("%-8s %-14s %-14s %-12s %-8s%n", "Threads", "Time (ms)", "Nodes", "NPS", "Speedup"));
+
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            ParallelPerft parallelPerft = new ParallelPerft(threads);
+
+            // Warm up the JIT before measuring
+            parallelPerft.perft(board, 4);
+
+            long totalNodes = 0;
+            long start = System.nanoTime();
+            for (String perftTest : perftSuite) {
+                String[] sections = perftTest.split(";");
+                board.parseFEN(sections[0]);
+
+                // Deepest depth that stays within the node budget
+                int depth = 0;
+                long expectedNodes = 0;
+                for (int i = 1; i < sections.length; i++) {
+                    String[] test = sections[i].trim().split(" ");
+                    if (Long.parseLong(test[1]) > maxNodesPerPosition) break;
+                    depth = Integer.parseInt(test[0].substring(1));
+                    expectedNodes = Long.parseLong(test[1]);
+                }
+                if (depth == 0) continue;
+
+                long nodes = parallelPerft.perft(board, depth);
+                if (nodes != expectedNodes) {
+                    System.out.println("Perft mismatch at depth " + depth + " (" + nodes + " != " + expectedNodes + "): " + sections[0]);
+                }
+                totalNodes += nodes;
+            }
+            long timeMS = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+            parallelPerft.shutdown();
+
+            if (threads == 1) singleThreadTime = timeMS;
+            results.append(String.format("%-8d %-14d %-14d %-12d %-8.2f%n",
+                    threads, timeMS, totalNodes, totalNodes * 1000 / timeMS, (double) singleThreadTime / timeMS));
+        }
+
+        System.out.println("\nPerft suite with at most " + maxNodesPerPosition + " nodes per position:");
+        System.out.print(results);
+    }
+}
@@ -7,8 +7,6 @@ import com.MichaelFN.chess.v5.move.MoveGenerator;
 
 import java.util.List;
 
-import static com.MichaelFN.chess.v5.Utils.isInCheck;
-
 public class Perft {
     private static final MoveGenerator moveGenerator = new MoveGenerator();
 
@@ -29,28 +27,66 @@ public class Perft {
     }
 
     public static long perft(Board board, int depth) {
-        return recursivePerft(board, depth, 0);
+        return recursivePerft(board, depth, 0, moveGenerator);
+    }
+
+    // Thread-safe as long as every thread passes its own board and move generator
+    public static long perft(Board board, int depth, MoveGenerator moveGenerator) {
+        return recursivePerft(board, depth, 0, moveGenerator);
     }
 
-    private static long recursivePerft(Board board, int depth, int ply) {
+    private static long recursivePerft(Board board, int depth, int ply, MoveGenerator moveGenerator) {
         if (depth == 0) {
             return 1;
         }
 
         long nodes = 0;
 
-        int playerColor = board.playerToMove;
-
-        moveGenerator.generatePseudoLegalMoves(board, ply);
-        int[] moves = moveGenerator.pseudoMoves[ply];
-        int n_moves = moveGenerator.pseudoMoveCounts[ply];
+        moveGenerator.generateLegalMoves(board, ply);
+        int[] moves = moveGenerator.legalMoves[ply];
+        int n_moves = moveGenerator.legalMoveCounts[ply];
         for (int i = 0; i < n_moves; i++) {
             int move = moves[i];
             board.makeMove(move);
-            if (!isInCheck(board, playerColor)) nodes += recursivePerft(board, depth - 1, ply + 1);
+            nodes += recursivePerft(board, depth - 1, ply + 1, moveGenerator);
+            board.unmakeMove();
+        }
+
+        return nodes;
+    }
+
+    // Counts every subtree once per position and depth, and leaf moves without making them
+    public static long hashedPerft(Board board, int depth, PerftTable perftTable) {
+        return hashedPerft(board, depth, perftTable, moveGenerator);
+    }
+
+    public static long hashedPerft(Board board, int depth, PerftTable perftTable, MoveGenerator moveGenerator) {
+        if (depth == 0) return 1;
+        return recursiveHashedPerft(board, depth, 0, perftTable, moveGenerator);
+    }
+
+    private static long recursiveHashedPerft(Board board, int depth, int ply, PerftTable perftTable, MoveGenerator moveGenerator) {
+        if (depth > 1) {
+            long cachedNodes = perftTable.get(board.hashKey, depth);
+            if (cachedNodes != PerftTable.NO_ENTRY) return cachedNodes;
+        }
+
+        moveGenerator.generateLegalMoves(board, ply);
+        int n_moves = moveGenerator.legalMoveCounts[ply];
+        int[] moves = moveGenerator.legalMoves[ply];
+
+        if (depth == 1) {
+            return n_moves;
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < n_moves; i++) {
+            board.makeMove(moves[i]);
+            nodes += recursiveHashedPerft(board, depth - 1, ply + 1, perftTable, moveGenerator);
             board.unmakeMove();
         }
 
+        perftTable.put(board.hashKey, depth, nodes);
         return nodes;
     }
 
@@ -67,12 +103,11 @@ public class Perft {
             return n_moves;
         }
 
-        int playerColor = board.playerToMove;
         long nodes = 0;
         for (int i = 0; i < n_moves; i++) {
             int move = moves[i];
             board.makeMove(move);
-            if (!isInCheck(board, playerColor)) nodes += recursiveBulkPerft(board, depth - 1, ply + 1);
+            nodes += recursiveBulkPerft(board, depth - 1, ply + 1);
             board.unmakeMove();
         }
 
@@ -92,13 +127,11 @@ public class Perft {
         int n_moves = moveGenerator.legalMoveCounts[ply];
         int[] moves = moveGenerator.legalMoves[ply];
 
-        int playerColor = board.playerToMove;
         long nodes = 0;
         for (int i = 0; i < n_moves; i++) {
             int move = moves[i];
             board.makeMove(move);
-            long n = 0;
-            if (!isInCheck(board, playerColor)) n = recursivePerftDebug(board, depth - 1, ply + 1);
+            long n = recursivePerftDebug(board, depth - 1, ply + 1);
             board.unmakeMove();
 
             if (ply == 0) System.out.println(com.MichaelFN.chess.v5.move.Move.toString(move) + ": " + n);
@@ -0,0 +1,68 @@
+package com.MichaelFN.chess.common;
+
+import com.MichaelFN.chess.v5.Utils;
+import com.MichaelFN.chess.v5.board.Board;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares perft speed of magic bitboard and hyperbola quintessence slider attacks.
+ * The implementation is fixed when Utils is loaded, so each one is measured in its own JVM.
+ * Usage: PerftBenchmark [maxNodesPerPosition]
+ */
+public class PerftBenchmark {
+    private static final String RUN_FLAG = "--run";
+    private static final long DEFAULT_MAX_NODES = 5_000_000;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals(RUN_FLAG)) {
+            run(args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_MAX_NODES);
+            return;
+        }
+
+        String maxNodes = args.length > 0 ? args[0] : String.valueOf(DEFAULT_MAX_NODES);
+        runInNewJvm(false, maxNodes);
+        runInNewJvm(true, maxNodes);
+    }
+
+    private static void runInNewJvm(boolean useHyperbola, String maxNodes) throws IOException, InterruptedException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<String> command = new ArrayList<>(List.of(java,
+                "-Dchess.hyperbolaSliders=" + useHyperbola,
+                "-cp", System.getProperty("java.class.path"),
+                PerftBenchmark.class.getName(), RUN_FLAG, maxNodes));
+        new ProcessBuilder(command).inheritIO().start().waitFor();
+    }
+
+    private static void run(long maxNodesPerPosition) throws IOException {
+        List<String> perftSuite = Files.readAllLines(Paths.get("src/test/resources/perftsuite.epd"));
+        Board board = new Board();
+
+        // Warm up the JIT before measuring
+        for (int i = 0; i < 3; i++) Perft.perft(board, 4);
+
+        long totalNodes = 0;
+        long start = System.nanoTime();
+        for (String perftTest : perftSuite) {
+            String[] sections = perftTest.split(";");
+            board.parseFEN(sections[0]);
+
+            // Deepest depth that stays within the node budget
+            int depth = 0;
+            for (int i = 1; i < sections.length; i++) {
+                String[] test = sections[i].trim().split(" ");
+                if (Long.parseLong(test[1]) > maxNodesPerPosition) break;
+                depth = Integer.parseInt(test[0].substring(1));
+            }
+            if (depth > 0) totalNodes += Perft.perft(board, depth);
+        }
+        long timeMS = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+
+        String sliders = Utils.USE_MAGIC_BITBOARDS ? "magic bitboards" : "hyperbola quintessence";
+        System.out.printf("%-24s nodes %-12d time %-8d ms  nps %d%n", sliders, totalNodes, timeMS, totalNodes * 1000 / timeMS);
+    }
+}
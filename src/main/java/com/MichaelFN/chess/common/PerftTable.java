@@ -0,0 +1,54 @@
+package com.MichaelFN.chess.common;
+
+import java.util.Arrays;
+
+public class PerftTable {
+    /**
+     * Caches perft subtree node counts by position and remaining depth.
+     * The same position is reached through many move orders, so deep perft visits far fewer subtrees.
+     *
+     * Each entry is two slots: (key ^ nodes) followed by nodes. A lookup only trusts the count
+     * if XOR-ing the slots gives back the full key, so the table can be shared between threads without locks.
+     * The depth is mixed into the key, so no bits are spent storing it.
+     */
+
+    public static final long NO_ENTRY = -1;
+
+    private static final int ENTRY_SIZE_BYTES = 2 * Long.BYTES;
+    private static final long DEPTH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final long MAX_ENTRIES = 1L << 29;    // Two slots per entry, so the array length stays below 2^31
+
+    private final long[] table;
+    private final long indexMask;
+
+    public PerftTable(int sizeInMB) {
+        long entries = ((long) sizeInMB * 1024 * 1024) / ENTRY_SIZE_BYTES;
+        entries = Long.highestOneBit(Math.max(1, Math.min(entries, MAX_ENTRIES)));
+        table = new long[(int) (entries * 2)];
+        indexMask = entries - 1;
+    }
+
+    private static long entryKey(long hashKey, int depth) {
+        return hashKey ^ (depth * DEPTH_MULTIPLIER);
+    }
+
+    // Returns the node count of the subtree, or NO_ENTRY
+    public long get(long hashKey, int depth) {
+        long key = entryKey(hashKey, depth);
+        int idx = (int) (key & indexMask) * 2;
+        long nodes = table[idx + 1];
+        return (table[idx] ^ nodes) == key ? nodes : NO_ENTRY;
+    }
+
+    // Always replaces: deep perft revisits recent subtrees most
+    public void put(long hashKey, int depth, long nodes) {
+        long key = entryKey(hashKey, depth);
+        int idx = (int) (key & indexMask) * 2;
+        table[idx] = key ^ nodes;
+        table[idx + 1] = nodes;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+    }
+}
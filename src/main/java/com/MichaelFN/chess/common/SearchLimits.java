@@ -0,0 +1,78 @@
+package com.MichaelFN.chess.common;
+
+/**
+ * Limits of one search, as given by the UCI "go" command. Fields that were not given keep their default,
+ * e.g. a search with only wtime and btime has no depth or node limit.
+ */
+public class SearchLimits {
+    public static final int MAX_DEPTH = 64;
+    public static final long NO_LIMIT = -1;
+
+    // Stands in for "no time limit" where a duration is needed, far enough away and safe to add to a timestamp
+    public static final long UNTIMED_MS = Integer.MAX_VALUE;
+
+    public int depth = MAX_DEPTH;
+    public long moveTimeMS = NO_LIMIT;
+    public long nodes = NO_LIMIT;
+    public long whiteTimeMS = NO_LIMIT;
+    public long blackTimeMS = NO_LIMIT;
+    public long whiteIncrementMS = 0;
+    public long blackIncrementMS = 0;
+    public int movesToGo = 0;       // 0 = rest of the game (sudden death)
+    public boolean infinite = false;
+    // Searching on the opponent's time. Cleared by the UCI thread on "ponderhit" while the search may be running.
+    public volatile boolean ponder = false;
+
+    // Parses the arguments of "go", unknown tokens are skipped
+    public static SearchLimits parseGo(String[] tok) {
+        SearchLimits limits = new SearchLimits();
+        for (int i = 1; i < tok.length; i++) {
+            boolean hasValue = i + 1 < tok.length;
+            switch (tok[i]) {
+                case "depth" -> { if (hasValue) limits.depth = Integer.parseInt(tok[++i]); }
+                case "movetime" -> { if (hasValue) limits.moveTimeMS = Long.parseLong(tok[++i]); }
+                case "nodes" -> { if (hasValue) limits.nodes = Long.parseLong(tok[++i]); }
+                case "wtime" -> { if (hasValue) limits.whiteTimeMS = Long.parseLong(tok[++i]); }
+                case "btime" -> { if (hasValue) limits.blackTimeMS = Long.parseLong(tok[++i]); }
+                case "winc" -> { if (hasValue) limits.whiteIncrementMS = Long.parseLong(tok[++i]); }
+                case "binc" -> { if (hasValue) limits.blackIncrementMS = Long.parseLong(tok[++i]); }
+                case "movestogo" -> { if (hasValue) limits.movesToGo = Integer.parseInt(tok[++i]); }
+                case "infinite" -> limits.infinite = true;
+                case "ponder" -> limits.ponder = true;
+                default -> { }
+            }
+        }
+        return limits;
+    }
+
+    // color: 0 = white, 1 = black
+    public boolean hasClock(int color) {
+        return getTimeLeft(color) != NO_LIMIT;
+    }
+
+    public long getTimeLeft(int color) {
+        return color == 0 ? whiteTimeMS : blackTimeMS;
+    }
+
+    public long getIncrement(int color) {
+        return color == 0 ? whiteIncrementMS : blackIncrementMS;
+    }
+
+    // Movetime or clock, whether or not they apply yet
+    public boolean hasTimeLimit(int color) {
+        return moveTimeMS != NO_LIMIT || hasClock(color);
+    }
+
+    // True when the search only ends on depth, nodes, "stop" or "ponderhit"
+    public boolean isUntimed(int color) {
+        return infinite || ponder || !hasTimeLimit(color);
+    }
+
+    // A fixed share of the clock, for engines without a time manager
+    public long getSimpleMoveTimeMS(int color) {
+        if (isUntimed(color)) return UNTIMED_MS;
+        if (moveTimeMS != NO_LIMIT) return moveTimeMS;
+        int moves = movesToGo > 0 ? movesToGo : 30;
+        return Math.max(getTimeLeft(color) / moves + getIncrement(color) / 2, 1);
+    }
+}
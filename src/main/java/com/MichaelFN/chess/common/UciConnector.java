@@ -12,11 +12,18 @@ import java.util.Stack;
 import java.util.concurrent.*;
 
 public class UciConnector {
+    private static final long STOP_POLL_MS = 10;
+
     private final BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
     private final PrintWriter out = new PrintWriter(System.out, true);
     private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor();
     private Future<?> searchFuture;
 
+    // Infinite and ponder searches hold back their bestmove until "stop" or "ponderhit", guarded by this
+    private final Object bestMoveLock = new Object();
+    private SearchLimits searchLimits;
+    private boolean stopRequested;
+
     private Engine engine;
 
     public UciConnector(Engine engine) {
@@ -32,6 +39,7 @@ public class UciConnector {
                 case "uci":
                     out.println("id name " + engine.getEngineName());
                     out.println("id author MichaelFN");
+                    for (String option : engine.getOptions()) out.println(option);
                     out.println("uciok");
                     break;
 
@@ -39,6 +47,9 @@ public class UciConnector {
                     out.println("readyok");
                     break;
 
+                case "setoption":
+                    handleSetOption(tok);
+                    break;
                 case "ucinewgame":
                     engine.clear();
                     break;
@@ -55,14 +66,16 @@ public class UciConnector {
                     handleGo(tok);
                     break;
 
+                case "ponderhit":
+                    handlePonderHit();
+                    break;
+
                 case "stop":
-                    if (searchFuture != null) {
-                        searchFuture.cancel(true);
-                        engine.stopSearch();
-                    }
+                    stopSearch();
                     break;
 
                 case "quit":
+                    stopSearch();
                     shutdown();
                     return;
 
@@ -98,28 +111,98 @@ public class UciConnector {
         engine.setPosition(fen, moves);
     }
 
-    private void handleGo(String[] tok) {
-        int depth = 64;
-        long movetime = 1000;
-
+    private void handleSetOption(String[] tok) {
+        // setoption name <id> [value <x>], where both id and x may contain spaces
+        StringBuilder name = new StringBuilder();
+        StringBuilder value = null;
         for (int i = 1; i < tok.length; i++) {
-            if (tok[i].equals("depth") && i+1 < tok.length) {
-                depth = Integer.parseInt(tok[++i]);
-            }
-            if (tok[i].equals("movetime") && i+1 < tok.length) {
-                movetime = Integer.parseInt(tok[++i]);
+            if (tok[i].equals("name") && i == 1) continue;
+            if (tok[i].equals("value") && value == null) {
+                value = new StringBuilder();
+                continue;
             }
+            StringBuilder sb = value == null ? name : value;
+            if (!sb.isEmpty()) sb.append(' ');
+            sb.append(tok[i]);
+        }
+
+        try {
+            engine.setOption(name.toString(), value == null ? null : value.toString());
+        } catch (IllegalArgumentException e) {
+            out.println("info string Invalid value for option " + name);
+        }
+    }
+
+    private void handleGo(String[] tok) {
+        // A new search only starts once the previous one has sent its bestmove
+        stopSearch();
+
+        SearchLimits limits = SearchLimits.parseGo(tok);
+        synchronized (bestMoveLock) {
+            searchLimits = limits;
+            stopRequested = false;
         }
 
-        int finalDepth = depth;
-        long finalMovetime = movetime;
         searchFuture = searchExecutor.submit(() -> {
-            engine.startSearch(finalDepth, Math.min(1000, finalMovetime / 10));
-            String best = engine.getMove();
-            out.println("bestmove " + best);
+            engine.startSearch(limits);
+            awaitBestMoveRelease(limits);
+
+            String ponder = engine.getPonderMove();
+            out.println("bestmove " + engine.getMove() + (ponder == null ? "" : " ponder " + ponder));
         });
     }
 
+    // Runs on the search thread. A search that ends by itself in infinite or ponder mode waits for the GUI.
+    private void awaitBestMoveRelease(SearchLimits limits) {
+        synchronized (bestMoveLock) {
+            while (!stopRequested && (limits.infinite || limits.ponder)) {
+                try {
+                    bestMoveLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void handlePonderHit() {
+        synchronized (bestMoveLock) {
+            if (searchLimits == null || !searchLimits.ponder) return;
+
+            // Read by the engine when it starts searching, in case the search has not started yet
+            searchLimits.ponder = false;
+            bestMoveLock.notifyAll();
+        }
+        engine.ponderHit();
+    }
+
+    // Blocks until the running search, if any, has sent its bestmove
+    private void stopSearch() {
+        if (searchFuture == null) return;
+
+        synchronized (bestMoveLock) {
+            stopRequested = true;
+            bestMoveLock.notifyAll();
+        }
+
+        // Repeated, since a stop that arrives before the search has started is reset by the search
+        while (!searchFuture.isDone()) {
+            engine.stopSearch();
+            try {
+                searchFuture.get(STOP_POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Still searching
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Search failed", e.getCause());
+            }
+        }
+        searchFuture = null;
+    }
+
     private void shutdown() {
         searchExecutor.shutdownNow();
     }
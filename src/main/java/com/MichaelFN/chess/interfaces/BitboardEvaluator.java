@@ -1,4 +1,10 @@
 package com.MichaelFN.chess.interfaces;
 
+import com.MichaelFN.chess.v5.board.Board;
+
 public interface BitboardEvaluator {
+    /**
+     * Evaluates the position from the side to move's point of view, in centipawns
+     */
+    int evaluate(Board board);
 }
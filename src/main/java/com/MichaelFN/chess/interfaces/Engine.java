@@ -1,5 +1,8 @@
 package com.MichaelFN.chess.interfaces;
 
+import com.MichaelFN.chess.common.SearchLimits;
+
+import java.util.List;
 import java.util.Stack;
 
 /**
@@ -30,11 +33,31 @@ public interface Engine {
      */
     void startSearch(int depth, long timeLimitMillis);
 
+    /**
+     * Starts a search with the limits of a UCI "go" command.
+     * Engines without a time manager search for the movetime or a fixed share of the clock,
+     * and until stopped when the search is infinite or pondering.
+     * This fallback does not know the side to move, so it takes its share of the shorter clock.
+     *
+     * @param limits depth, time, clock and node limits of the search.
+     */
+    default void startSearch(SearchLimits limits) {
+        startSearch(limits.depth, Math.min(limits.getSimpleMoveTimeMS(0), limits.getSimpleMoveTimeMS(1)));
+    }
+
     /**
      * Stops the search for the next move
      */
     void stopSearch();
 
+    /**
+     * The opponent played the move the engine was pondering on, so the search now runs on the engine's clock.
+     * Engines that can not switch to their clock stop and play the best move found while pondering.
+     */
+    default void ponderHit() {
+        stopSearch();
+    }
+
     /**
      * Gets the move found by the engine after a search.
      *
@@ -42,6 +65,15 @@ public interface Engine {
      */
     String getMove();
 
+    /**
+     * Gets the expected reply to the move found by the last search, to ponder on.
+     *
+     * @return The move in UCI notation, or null if there is none.
+     */
+    default String getPonderMove() {
+        return null;
+    }
+
     /**
      * Gets the name of the engine.
      */
@@ -52,6 +84,31 @@ public interface Engine {
      */
     void clear();
 
+    /**
+     * Gets the options supported by the engine, as UCI "option" lines.
+     */
+    default List<String> getOptions() {
+        return List.of();
+    }
+
+    /**
+     * Sets an option advertised by getOptions(). Unknown options are ignored.
+     *
+     * @param name name of the option, e.g. "Threads".
+     * @param value value of the option, or null for button options.
+     */
+    default void setOption(String name, String value) {
+    }
+
+    /**
+     * Turns the info lines and debug output printed during a search on or off.
+     * Engines playing arena games are silenced, so concurrent games do not write into each other's output.
+     *
+     * @param enabled false to search without printing anything.
+     */
+    default void setSearchOutput(boolean enabled) {
+    }
+
     String toString();
 
     void printBoard();
@@ -1,5 +1,6 @@
 package com.MichaelFN.chess.v1;
 
+import com.MichaelFN.chess.common.SearchLimits;
 import com.MichaelFN.chess.common.UciConnector;
 import com.MichaelFN.chess.interfaces.Engine;
 import com.MichaelFN.chess.v6.EngineV6;
@@ -44,6 +45,11 @@ public class EngineV1 implements Engine {
         if (DEBUG_ENGINES) System.out.println(getEngineName() + ": Done searching.");
     }
 
+    @Override
+    public void startSearch(SearchLimits limits) {
+        startSearch(limits.depth, limits.getSimpleMoveTimeMS(boardState.getPlayerToMove().ordinal()));
+    }
+
     @Override
     public void stopSearch() {
         // Do nothing
@@ -6,12 +6,30 @@ import com.MichaelFN.chess.v1.EngineV1;
 import com.MichaelFN.chess.v6.EngineV6;
 
 import java.io.IOException;
+import java.util.List;
 
 import static com.MichaelFN.chess.common.Constants.DEBUG_ENGINES;
 
 public class EngineV2 extends EngineV1 {
-    private final NormalEvaluator evaluator = new Evaluator();
-    private final Negamax searcher = new Negamax(evaluator);
+    // Shared with V3 and V4, which only bring their own evaluator
+    protected final Negamax searcher;
+
+    public EngineV2() {
+        this(new Evaluator());
+    }
+
+    // Smaller tables let many engines play at the same time (arena)
+    public EngineV2(int hashSizeMB) {
+        this(new Evaluator(), hashSizeMB);
+    }
+
+    protected EngineV2(NormalEvaluator evaluator) {
+        this(evaluator, Negamax.DEFAULT_HASH_SIZE_MB);
+    }
+
+    protected EngineV2(NormalEvaluator evaluator, int hashSizeMB) {
+        searcher = new Negamax(evaluator, hashSizeMB);
+    }
 
     @Override
     public void startSearch(int depth, long timeLimitMillis) {
@@ -20,11 +38,38 @@ public class EngineV2 extends EngineV1 {
         if (DEBUG_ENGINES) System.out.println(getEngineName() + ": Done searching.");
     }
 
+    @Override
+    public void stopSearch() {
+        searcher.stop();
+    }
+
     @Override
     public void clear() {
         searcher.clearTranspositionTable();
     }
 
+    @Override
+    public List<String> getOptions() {
+        return List.of(
+                "option name Hash type spin default " + Negamax.DEFAULT_HASH_SIZE_MB + " min 1 max " + TranspositionTable.MAX_SIZE_MB,
+                "option name Clear Hash type button"
+        );
+    }
+
+    @Override
+    public void setOption(String name, String value) {
+        if (name.equalsIgnoreCase("Hash")) {
+            searcher.resizeTranspositionTable(Integer.parseInt(value));
+        } else if (name.equalsIgnoreCase("Clear Hash")) {
+            searcher.clearTranspositionTable();
+        }
+    }
+
+    @Override
+    public void setSearchOutput(boolean enabled) {
+        searcher.setSearchOutput(enabled);
+    }
+
     @Override
     public String getEngineName() {
         return "Material Eval Engine (V2)";
@@ -12,11 +12,14 @@ import java.util.List;
 import static com.MichaelFN.chess.common.Constants.DEBUG_SEARCH;
 
 public class Negamax {
+    public static final int DEFAULT_HASH_SIZE_MB = 128;
+
     private final NormalEvaluator evaluator;
-    private final TranspositionTable transpositionTable = new TranspositionTable(128);
+    private final TranspositionTable transpositionTable;
+    private boolean searchOutput = true;
 
     private int nodesSearched;
-    private boolean isTimeUp;
+    private volatile boolean isTimeUp;     // Also set by stop() from another thread
 
     // Save principal variation for every depth
     private static final int MAX_DEPTH = 64;
@@ -24,7 +27,12 @@ public class Negamax {
     private final int[] pvLength = new int[MAX_DEPTH];
 
     public Negamax(NormalEvaluator evaluator) {
+        this(evaluator, DEFAULT_HASH_SIZE_MB);
+    }
+
+    public Negamax(NormalEvaluator evaluator, int hashSizeMB) {
         this.evaluator = evaluator;
+        this.transpositionTable = new TranspositionTable(hashSizeMB);
     }
 
     public Move findBestMove(BoardState boardState, int maxDepth, long time) {
@@ -53,7 +61,7 @@ public class Negamax {
             TranspositionTable.Entry ttEntry = transpositionTable.get(boardState.getKey());
             bestMove = ttEntry == null ? null : ttEntry.bestMove;
 
-            if (DEBUG_SEARCH) {
+            if (DEBUG_SEARCH && searchOutput) {
                 // Print principal variation
                 System.out.print("Depth " + depth + " searched. Current best variation: ");
                 for (Move move : getPrincipalVariation(boardState, depth)) System.out.print(move + " ");
@@ -61,7 +69,7 @@ public class Negamax {
             }
         }
 
-        if (DEBUG_SEARCH) {
+        if (DEBUG_SEARCH && searchOutput) {
             System.out.println("Nodes searched: " + nodesSearched);
             System.out.println("Time used: " + (System.currentTimeMillis() - startTime));
             System.out.println("Best score: " + bestScore);
@@ -73,7 +81,7 @@ public class Negamax {
 
     private int negamax(BoardState boardState, int depth, int alpha, int beta, int ply, long endTime) {
         // Check for timeout before any computation
-        if (System.currentTimeMillis() > endTime) {
+        if (isTimeUp || System.currentTimeMillis() > endTime) {
             isTimeUp = true;
             return 0;
         }
@@ -124,7 +132,7 @@ public class Negamax {
         int originalAlpha = alpha;
 
         for (Move move : legalMoves) {
-            if (System.currentTimeMillis() > endTime) {
+            if (isTimeUp || System.currentTimeMillis() > endTime) {
                 isTimeUp = true;
                 return 0;
             }
@@ -160,7 +168,7 @@ public class Negamax {
     }
 
     private int quiescence(BoardState boardState, int alpha, int beta, long endTime) {
-        if (System.currentTimeMillis() > endTime) {
+        if (isTimeUp || System.currentTimeMillis() > endTime) {
             isTimeUp = true;
             return 0;
         }
@@ -181,7 +189,7 @@ public class Negamax {
         MoveOrdering.orderMoves(captures, null, null);  // Not sure if this matters much for performance
 
         for (Move move : captures) {
-            if (System.currentTimeMillis() > endTime) {
+            if (isTimeUp || System.currentTimeMillis() > endTime) {
                 isTimeUp = true;
                 return 0;
             }
@@ -259,4 +267,16 @@ public class Negamax {
     public void clearTranspositionTable() {
         transpositionTable.clear();
     }
+
+    public void resizeTranspositionTable(int sizeInMB) {
+        transpositionTable.resize(sizeInMB);
+    }
+
+    public void setSearchOutput(boolean enabled) {
+        searchOutput = enabled;
+    }
+
+    public void stop() {
+        isTimeUp = true;
+    }
 }
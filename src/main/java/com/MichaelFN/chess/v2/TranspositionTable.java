@@ -8,8 +8,13 @@ public class TranspositionTable {
 
     private static final int APPROX_ENTRY_SIZE_BYTES = 40;
 
-    private final int size;
-    private final Entry[] table;
+    private static final int MAX_ENTRIES = 1 << 30;
+
+    // 40 GB at the approximate entry size, sizes are rounded down to a power of 2
+    public static final int MAX_SIZE_MB = (int) ((long) MAX_ENTRIES * APPROX_ENTRY_SIZE_BYTES / (1024 * 1024));
+
+    private int size;
+    private Entry[] table;
     private int collisions = 0;
 
     // TTEntry used only internally
@@ -42,12 +47,19 @@ public class TranspositionTable {
     }
 
     public TranspositionTable(int sizeInMB) {
+        resize(sizeInMB);
+    }
+
+    // Replaces the table with an empty one. Must not be called during a search.
+    public void resize(int sizeInMB) {
         // Allocate sizeInMB megabytes
-        int entries = (sizeInMB * 1024 * 1024) / APPROX_ENTRY_SIZE_BYTES;
+        long entries = ((long) sizeInMB * 1024 * 1024) / APPROX_ENTRY_SIZE_BYTES;
 
         // MAke size a power of 2 for efficient indexing
-        size = Integer.highestOneBit(entries);
+        size = (int) Long.highestOneBit(Math.max(1, Math.min(entries, MAX_ENTRIES)));
+        table = null;
         table = new Entry[size];
+        collisions = 0;
     }
 
     private int index(long key) {
@@ -1,7 +1,7 @@
 package com.MichaelFN.chess.v5;
 
 public class Constants {
-    public static final int MAX_MOVES = 256;
+    public static final int MAX_MOVES = 1024;              // Plies of board history: game moves plus search plies
     public static final int MAX_MOVES_IN_POSITION = 256;
     public static final int MAX_SEARCH_DEPTH = 64;
     public static final int MAX_PLY = 64;
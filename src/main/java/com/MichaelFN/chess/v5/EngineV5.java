@@ -1,13 +1,17 @@
 package com.MichaelFN.chess.v5;
 
+import com.MichaelFN.chess.common.SearchLimits;
 import com.MichaelFN.chess.common.UciConnector;
 import com.MichaelFN.chess.interfaces.Engine;
 import com.MichaelFN.chess.v5.board.Board;
 import com.MichaelFN.chess.v5.search.Evaluator;
 import com.MichaelFN.chess.v5.search.Searcher;
+import com.MichaelFN.chess.v5.search.TranspositionTable;
 import com.MichaelFN.chess.v6.EngineV6;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Stack;
 
 import static com.MichaelFN.chess.common.Constants.DEBUG_ENGINES;
@@ -17,27 +21,59 @@ public class EngineV5 implements Engine {
     protected int bestMove;
 
     private final Evaluator evaluator = new Evaluator();
-    private final Searcher searcher = new Searcher(evaluator);
+    private final Searcher searcher;
+
+    // Position set by the last setPosition, so a following call can apply only the new moves
+    private String positionFEN;
+    private final List<String> positionMoves = new ArrayList<>();
+    private long positionHashKey;
 
     public EngineV5() {
+        this(Searcher.DEFAULT_HASH_SIZE_MB);
+    }
+
+    // Smaller tables let many engines play at the same time (arena)
+    public EngineV5(int hashSizeMB) {
+        searcher = new Searcher(evaluator, hashSizeMB);
         initialize();
     }
 
     @Override
     public void initialize() {
         board = new Board();
+        positionFEN = null;
         if (DEBUG_ENGINES) System.out.println(getEngineName() + ": Initialized.");
     }
 
     @Override
     public void setPosition(String FEN, Stack<String> uciMoves) {
-        board.parseFEN(FEN);
-        for (String move : uciMoves) {
+        int firstNewMove = extendsCurrentPosition(FEN, uciMoves) ? positionMoves.size() : 0;
+        if (firstNewMove == 0) {
+            board.parseFEN(FEN);
+            positionFEN = FEN;
+            positionMoves.clear();
+        }
+
+        // Moves are made on the board, so the repetition history covers the whole game either way
+        for (int i = firstNewMove; i < uciMoves.size(); i++) {
+            String move = uciMoves.get(i);
             board.makeMove(Utils.uciToMove(move, board));
+            positionMoves.add(move);
         }
+        positionHashKey = board.hashKey;
         if (DEBUG_ENGINES) System.out.println(getEngineName() + ": Position has been set.");
     }
 
+    private boolean extendsCurrentPosition(String FEN, Stack<String> uciMoves) {
+        // The board must still be where the last call left it
+        if (positionFEN == null || !positionFEN.equals(FEN) || board.hashKey != positionHashKey) return false;
+        if (uciMoves.size() < positionMoves.size()) return false;
+        for (int i = 0; i < positionMoves.size(); i++) {
+            if (!positionMoves.get(i).equals(uciMoves.get(i))) return false;
+        }
+        return true;
+    }
+
     @Override
     public void startSearch(int depth, long timeLimitMillis) {
         if (DEBUG_ENGINES) System.out.println(getEngineName() + ": Search started...");
@@ -45,6 +81,11 @@ public class EngineV5 implements Engine {
         if (DEBUG_ENGINES) System.out.println(getEngineName() + ": Done searching.");
     }
 
+    @Override
+    public void startSearch(SearchLimits limits) {
+        startSearch(limits.depth, limits.getSimpleMoveTimeMS(board.playerToMove));
+    }
+
     @Override
     public void stopSearch() {
         searcher.stop();
@@ -52,7 +93,30 @@ public class EngineV5 implements Engine {
 
     @Override
     public String getMove() {
-        return Utils.moveToUci(bestMove);
+        // UCI null move when checkmated or stalemated
+        return bestMove == 0 ? "0000" : Utils.moveToUci(bestMove);
+    }
+
+    @Override
+    public List<String> getOptions() {
+        return List.of(
+                "option name Hash type spin default " + Searcher.DEFAULT_HASH_SIZE_MB + " min 1 max " + TranspositionTable.MAX_SIZE_MB,
+                "option name Clear Hash type button"
+        );
+    }
+
+    @Override
+    public void setOption(String name, String value) {
+        if (name.equalsIgnoreCase("Hash")) {
+            searcher.resizeTranspositionTable(Integer.parseInt(value));
+        } else if (name.equalsIgnoreCase("Clear Hash")) {
+            searcher.clearTranspositionTable();
+        }
+    }
+
+    @Override
+    public void setSearchOutput(boolean enabled) {
+        searcher.setSearchOutput(enabled);
     }
 
     @Override
@@ -0,0 +1,72 @@
+package com.MichaelFN.chess.v5;
+
+import com.MichaelFN.chess.common.PestoConstants;
+import com.MichaelFN.chess.v5.board.Bitboard;
+import com.MichaelFN.chess.v5.board.Board;
+
+import static com.MichaelFN.chess.v5.Constants.*;
+
+public class Pesto {
+    /**
+     * Material plus piece-square value of every piece on every square, for midgame and endgame.
+     * Values are from white's point of view (black pieces are mirrored and negated),
+     * so the board can keep a running sum that is updated by adding and subtracting table entries.
+     */
+
+    private static final int NUM_COLORS = 2;
+    private static final int NUM_PIECE_TYPES = 7; // 0 unused: [1..6] = pawn..king
+    private static final int NUM_SQUARES = 64;
+
+    public static final int[][][] MG_SCORES = new int[NUM_COLORS][NUM_PIECE_TYPES][NUM_SQUARES];
+    public static final int[][][] EG_SCORES = new int[NUM_COLORS][NUM_PIECE_TYPES][NUM_SQUARES];
+    public static final int[] PHASE_VALUES = new int[NUM_PIECE_TYPES];
+
+    static {
+        for (int piece = PAWN; piece <= KING; piece++) {
+            int typeIdx = piece - 1;
+            PHASE_VALUES[piece] = PestoConstants.GAME_PHASE_VALUES[typeIdx];
+            for (int square = 0; square < NUM_SQUARES; square++) {
+                int mirrored = Bitboard.mirror(square);
+                MG_SCORES[WHITE][piece][square] = PestoConstants.MG_VALUE[typeIdx] + PestoConstants.MG_PST[typeIdx][square];
+                EG_SCORES[WHITE][piece][square] = PestoConstants.EG_VALUE[typeIdx] + PestoConstants.EG_PST[typeIdx][square];
+                MG_SCORES[BLACK][piece][square] = -(PestoConstants.MG_VALUE[typeIdx] + PestoConstants.MG_PST[typeIdx][mirrored]);
+                EG_SCORES[BLACK][piece][square] = -(PestoConstants.EG_VALUE[typeIdx] + PestoConstants.EG_PST[typeIdx][mirrored]);
+            }
+        }
+    }
+
+    // Computes the full midgame score for a board position
+    public static int computeMgScore(Board board) {
+        return computeScore(board, MG_SCORES);
+    }
+
+    // Computes the full endgame score for a board position
+    public static int computeEgScore(Board board) {
+        return computeScore(board, EG_SCORES);
+    }
+
+    // Computes the uncapped game phase for a board position
+    public static int computePhase(Board board) {
+        int phase = 0;
+        for (int color = WHITE; color <= BLACK; color++) {
+            for (int piece = PAWN; piece <= KING; piece++) {
+                phase += PHASE_VALUES[piece] * Long.bitCount(board.pieces[color][piece]);
+            }
+        }
+        return phase;
+    }
+
+    private static int computeScore(Board board, int[][][] scores) {
+        int score = 0;
+        for (int color = WHITE; color <= BLACK; color++) {
+            for (int piece = PAWN; piece <= KING; piece++) {
+                long pieceBB = board.pieces[color][piece];
+                while (pieceBB != 0) {
+                    score += scores[color][piece][Bitboard.lsb(pieceBB)];
+                    pieceBB = Bitboard.clearLsb(pieceBB);
+                }
+            }
+        }
+        return score;
+    }
+}
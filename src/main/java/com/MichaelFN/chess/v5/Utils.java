@@ -2,6 +2,7 @@ package com.MichaelFN.chess.v5;
 
 import com.MichaelFN.chess.v5.board.Bitboard;
 import com.MichaelFN.chess.v5.board.Board;
+import com.MichaelFN.chess.v5.move.MagicBitboards;
 import com.MichaelFN.chess.v5.move.Move;
 
 import static com.MichaelFN.chess.v5.Constants.*;
@@ -10,6 +11,9 @@ import static com.MichaelFN.chess.v5.move.MoveTables.*;
 
 public class Utils {
 
+    // Slider attacks come from magic bitboard tables, unless started with -Dchess.hyperbolaSliders=true
+    public static final boolean USE_MAGIC_BITBOARDS = !Boolean.getBoolean("chess.hyperbolaSliders");
+
     public static final String[] SQUARE_NAMES = {
             "a1", "b1", "c1", "d1", "e1", "f1", "g1", "h1",
             "a2", "b2", "c2", "d2", "e2", "f2", "g2", "h2",
@@ -102,11 +106,21 @@ public class Utils {
     }
 
     public static long getBishopMoves(int fromSquare, long occupancy) {
+        if (!USE_MAGIC_BITBOARDS) return getBishopMovesHyperbola(fromSquare, occupancy);
+        return MagicBitboards.getBishopAttacks(fromSquare, occupancy);
+    }
+
+    public static long getRookMoves(int fromSquare, long occupancy) {
+        if (!USE_MAGIC_BITBOARDS) return getRookMovesHyperbola(fromSquare, occupancy);
+        return MagicBitboards.getRookAttacks(fromSquare, occupancy);
+    }
+
+    public static long getBishopMovesHyperbola(int fromSquare, long occupancy) {
         return hyperbolaQuintessence(fromSquare, DIAGONAL_MASKS_PER_SQUARE[fromSquare], occupancy) |
                 hyperbolaQuintessence(fromSquare, ANTI_DIAGONAL_MASKS_PER_SQUARE[fromSquare], occupancy);
     }
 
-    public static long getRookMoves(int fromSquare, long occupancy) {
+    public static long getRookMovesHyperbola(int fromSquare, long occupancy) {
         return hyperbolaQuintessence(fromSquare, RANK_MASKS_PER_SQUARE[fromSquare], occupancy) |
                 hyperbolaQuintessence(fromSquare, FILE_MASKS_PER_SQUARE[fromSquare], occupancy);
     }
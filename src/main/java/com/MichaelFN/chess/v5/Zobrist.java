@@ -81,6 +81,22 @@ public class Zobrist {
         return hash;
     }
 
+    // Hash of the pawns and kings only, the key of the pawn hash table. Uses the same keys as the full hash,
+    // so the board can update both with the same piece keys.
+    public static long computePawnKey(Board board) {
+        long hash = 0L;
+
+        for (int color = 0; color < NUM_COLORS; color++) {
+            long bitboard = board.pieces[color][Constants.PAWN] | board.pieces[color][Constants.KING];
+            while (bitboard != 0) {
+                int square = Long.numberOfTrailingZeros(bitboard);
+                hash ^= PIECE_KEYS[color][board.pieceAtSquare[square]][square];
+                bitboard = Bitboard.clearLsb(bitboard);
+            }
+        }
+        return hash;
+    }
+
     // Incremental hash updates
     public static long removePiece(long hash, int color, int pieceType, int square) {
         return hash ^ PIECE_KEYS[color][pieceType][square];
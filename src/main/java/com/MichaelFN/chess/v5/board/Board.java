@@ -2,8 +2,10 @@ package com.MichaelFN.chess.v5.board;
 
 import com.MichaelFN.chess.v5.Utils;
 import com.MichaelFN.chess.v5.Constants;
+import com.MichaelFN.chess.v5.Pesto;
 import com.MichaelFN.chess.v5.Zobrist;
 import com.MichaelFN.chess.v5.move.Move;
+import com.MichaelFN.chess.v5.nnue.NnueAccumulator;
 
 import java.util.Arrays;
 import java.util.HashMap;
@@ -39,19 +41,66 @@ public class Board {
     private final int[] halfmoveClockHistory = new int[MAX_MOVES];
     private final int[] fullmoveNumberHistory = new int[MAX_MOVES];
     private final long[] hashKeyHistory = new long[MAX_MOVES];
+    private final long[] pawnKeyHistory = new long[MAX_MOVES];
     private final int[] capturedPieceHistory = new int[MAX_MOVES];
+    private final int[] mgScoreHistory = new int[MAX_MOVES];
+    private final int[] egScoreHistory = new int[MAX_MOVES];
+    private final int[] phaseHistory = new int[MAX_MOVES];
 
     // Helpers
     public int[] pieceAtSquare = new int[64];
     public int moveCounter = 0;
     public long hashKey;
+    public long pawnKey;        // Zobrist hash of the pawns and kings
 
+    // PeSTO evaluation terms from white's point of view, updated incrementally like the hash key
+    public int mgScore;
+    public int egScore;
+    public int phase;         // Not capped, can exceed 24 after promotions
+
+    // NNUE feature transformer, updated with the PeSTO terms. Only the NnueEvaluator in use attaches it, and the owner
+    // of the board sets it back to null when switching to another evaluator, as every move would keep updating it.
+    public NnueAccumulator accumulator;
 
     public Board() {
         this.pieces = new long[2][7];
         BoardInitializer.initializeBoard(this);
     }
 
+    // Deep copy, including the history needed for repetition detection
+    public Board(Board other) {
+        this.pieces = new long[2][];
+        this.pieces[WHITE] = other.pieces[WHITE].clone();
+        this.pieces[BLACK] = other.pieces[BLACK].clone();
+        this.playerToMove = other.playerToMove;
+        this.castlingRights = other.castlingRights;
+        this.enPassantSquare = other.enPassantSquare;
+        this.halfmoveClock = other.halfmoveClock;
+        this.fullmoveNumber = other.fullmoveNumber;
+        this.gameStatus = other.gameStatus;
+
+        System.arraycopy(other.moveHistory, 0, moveHistory, 0, MAX_MOVES);
+        System.arraycopy(other.castlingRightsHistory, 0, castlingRightsHistory, 0, MAX_MOVES);
+        System.arraycopy(other.enPassantSquareHistory, 0, enPassantSquareHistory, 0, MAX_MOVES);
+        System.arraycopy(other.halfmoveClockHistory, 0, halfmoveClockHistory, 0, MAX_MOVES);
+        System.arraycopy(other.fullmoveNumberHistory, 0, fullmoveNumberHistory, 0, MAX_MOVES);
+        System.arraycopy(other.hashKeyHistory, 0, hashKeyHistory, 0, MAX_MOVES);
+        System.arraycopy(other.pawnKeyHistory, 0, pawnKeyHistory, 0, MAX_MOVES);
+        System.arraycopy(other.capturedPieceHistory, 0, capturedPieceHistory, 0, MAX_MOVES);
+        System.arraycopy(other.mgScoreHistory, 0, mgScoreHistory, 0, MAX_MOVES);
+        System.arraycopy(other.egScoreHistory, 0, egScoreHistory, 0, MAX_MOVES);
+        System.arraycopy(other.phaseHistory, 0, phaseHistory, 0, MAX_MOVES);
+
+        this.pieceAtSquare = other.pieceAtSquare.clone();
+        this.moveCounter = other.moveCounter;
+        this.hashKey = other.hashKey;
+        this.pawnKey = other.pawnKey;
+        this.mgScore = other.mgScore;
+        this.egScore = other.egScore;
+        this.phase = other.phase;
+        this.accumulator = other.accumulator == null ? null : other.accumulator.copy();
+    }
+
     public boolean isRepetition() {
         int count = 0;
         for (int i = moveCounter - 1; i >= 0 && i >= moveCounter - halfmoveClock; i--) {
@@ -96,7 +145,12 @@ public class Board {
         halfmoveClockHistory[moveCounter] = halfmoveClock;
         fullmoveNumberHistory[moveCounter] = fullmoveNumber;
         hashKeyHistory[moveCounter] = hashKey;
+        pawnKeyHistory[moveCounter] = pawnKey;
         capturedPieceHistory[moveCounter] = capturedPiece;
+        mgScoreHistory[moveCounter] = mgScore;
+        egScoreHistory[moveCounter] = egScore;
+        phaseHistory[moveCounter] = phase;
+        if (accumulator != null) accumulator.push();
 
         // Move piece
         pieces[color][movedPiece] ^= fromToBB;
@@ -105,6 +159,11 @@ public class Board {
         pieceAtSquare[to] = movedPiece;
         hashKey = Zobrist.removePiece(hashKey, color, movedPiece, from);
         hashKey = Zobrist.addPiece(hashKey, color, movedPiece, to);
+        if (movedPiece == PAWN || movedPiece == KING) {
+            pawnKey = Zobrist.removePiece(pawnKey, color, movedPiece, from);
+            pawnKey = Zobrist.addPiece(pawnKey, color, movedPiece, to);
+        }
+        movePieceScore(color, movedPiece, from, to);
 
         // Capture
         if (Move.isCapture(move)) {
@@ -118,6 +177,8 @@ public class Board {
                 pieces[enemyColor][ALL_PIECES] ^= captureSquareBB;
                 pieceAtSquare[captureSquare] = nonePiece;
                 hashKey = Zobrist.removePiece(hashKey, enemyColor, capturedPiece, captureSquare);
+                pawnKey = Zobrist.removePiece(pawnKey, enemyColor, PAWN, captureSquare);
+                removePieceScore(enemyColor, capturedPiece, captureSquare);
             }
 
             // Normal capture
@@ -125,6 +186,8 @@ public class Board {
                 pieces[enemyColor][capturedPiece] ^= toBB;
                 pieces[enemyColor][allPieces] ^= toBB;
                 hashKey = Zobrist.removePiece(hashKey, enemyColor, capturedPiece, to);
+                if (capturedPiece == PAWN) pawnKey = Zobrist.removePiece(pawnKey, enemyColor, PAWN, to);
+                removePieceScore(enemyColor, capturedPiece, to);
             }
         }
 
@@ -148,6 +211,9 @@ public class Board {
             pieceAtSquare[to] = promotionPiece;
             hashKey = Zobrist.removePiece(hashKey, color, PAWN, to);
             hashKey = Zobrist.addPiece(hashKey, color, promotionPiece, to);
+            pawnKey = Zobrist.removePiece(pawnKey, color, PAWN, to);
+            removePieceScore(color, PAWN, to);
+            addPieceScore(color, promotionPiece, to);
         }
 
         // Castling
@@ -161,6 +227,7 @@ public class Board {
             pieceAtSquare[rookTo] = ROOK;
             hashKey = Zobrist.removePiece(hashKey, color, ROOK, rookFrom);
             hashKey = Zobrist.addPiece(hashKey, color, ROOK, rookTo);
+            movePieceScore(color, ROOK, rookFrom, rookTo);
         } else if (Move.isCastleQueenSide(move)) {
             int rookFrom = (color == WHITE) ? Bitboard.A1 : Bitboard.A8;
             int rookTo   = (color == WHITE) ? Bitboard.D1 : Bitboard.D8;
@@ -171,6 +238,7 @@ public class Board {
             pieceAtSquare[rookTo] = ROOK;
             hashKey = Zobrist.removePiece(hashKey, color, ROOK, rookFrom);
             hashKey = Zobrist.addPiece(hashKey, color, ROOK, rookTo);
+            movePieceScore(color, ROOK, rookFrom, rookTo);
         }
 
         // Castling rights
@@ -252,7 +320,12 @@ public class Board {
         halfmoveClock = halfmoveClockHistory[moveCounter];
         fullmoveNumber = fullmoveNumberHistory[moveCounter];
         hashKey = hashKeyHistory[moveCounter];
+        pawnKey = pawnKeyHistory[moveCounter];
+        mgScore = mgScoreHistory[moveCounter];
+        egScore = egScoreHistory[moveCounter];
+        phase = phaseHistory[moveCounter];
         playerToMove = color;
+        if (accumulator != null) accumulator.pop();
 
         // Promotion
         if (Move.isPromotion(move)) {
@@ -312,6 +385,26 @@ public class Board {
         gameStatus = ONGOING;
     }
 
+    private void addPieceScore(int color, int piece, int square) {
+        mgScore += Pesto.MG_SCORES[color][piece][square];
+        egScore += Pesto.EG_SCORES[color][piece][square];
+        phase += Pesto.PHASE_VALUES[piece];
+        if (accumulator != null) accumulator.addPiece(color, piece, square);
+    }
+
+    private void removePieceScore(int color, int piece, int square) {
+        mgScore -= Pesto.MG_SCORES[color][piece][square];
+        egScore -= Pesto.EG_SCORES[color][piece][square];
+        phase -= Pesto.PHASE_VALUES[piece];
+        if (accumulator != null) accumulator.removePiece(color, piece, square);
+    }
+
+    private void movePieceScore(int color, int piece, int from, int to) {
+        mgScore += Pesto.MG_SCORES[color][piece][to] - Pesto.MG_SCORES[color][piece][from];
+        egScore += Pesto.EG_SCORES[color][piece][to] - Pesto.EG_SCORES[color][piece][from];
+        if (accumulator != null) accumulator.movePiece(color, piece, from, to);
+    }
+
     public void makeNullMove() {
 
         // Update history
@@ -363,6 +456,12 @@ public class Board {
         Arrays.fill(halfmoveClockHistory, 0);
         Arrays.fill(fullmoveNumberHistory, 0);
         Arrays.fill(hashKeyHistory, 0L);
+        Arrays.fill(pawnKeyHistory, 0L);
+        pawnKey = 0L;
+        mgScore = 0;
+        egScore = 0;
+        phase = 0;
+        accumulator = null;
     }
 
     public String generateFENString() {
@@ -1,5 +1,6 @@
 package com.MichaelFN.chess.v5.board;
 
+import com.MichaelFN.chess.v5.Pesto;
 import com.MichaelFN.chess.v5.Zobrist;
 import com.MichaelFN.chess.v5.Utils;
 
@@ -53,6 +54,10 @@ public class BoardInitializer {
         board.fullmoveNumber = Integer.parseInt(parts[5]);
         board.moveCounter = 0;
         board.hashKey = Zobrist.computeHash(board);
+        board.pawnKey = Zobrist.computePawnKey(board);
+        board.mgScore = Pesto.computeMgScore(board);
+        board.egScore = Pesto.computeEgScore(board);
+        board.phase = Pesto.computePhase(board);
         //board.repetitionCount = new HashMap<>(){{ put(board.hashKey, 1); }};
     }
 }
@@ -0,0 +1,140 @@
+package com.MichaelFN.chess.v5.move;
+
+import com.MichaelFN.chess.v5.Utils;
+
+import static com.MichaelFN.chess.v5.board.Bitboard.*;
+
+public class MagicBitboards {
+    /**
+     * Magic bitboards turn slider attack generation into a table look-up.
+     * Only the occupancy of the squares that can block a slider matters (the relevant mask, edges excluded).
+     * Multiplying those bits by a magic number and keeping the top bits gives a perfect hash into a table
+     * of precomputed attack sets, so no loops or reversals are needed at runtime.
+     *
+     * The magics are found when the class is loaded, using a fixed seed so the tables are reproducible.
+     * All attack sets live in one flat array per piece, with an offset for each square ("fancy" magics).
+     *
+     * Read more: <a href="https://www.chessprogramming.org/Magic_Bitboards">...</a>
+     */
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] ROOK_MAGICS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final long[] ROOK_ATTACKS;
+
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[] BISHOP_MAGICS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    private static final long[] BISHOP_ATTACKS;
+
+    static {
+        long edges = FILE_A | FILE_H | RANK_1 | RANK_8;
+        for (int square = 0; square < 64; square++) {
+            long squareBB = SQUARE_BB_LOOK_UP[square];
+
+            // Edge squares never block a ray, unless the slider stands on that edge
+            long rankMask = RANK_MASKS_PER_SQUARE[square] & ~(FILE_A | FILE_H);
+            long fileMask = FILE_MASKS_PER_SQUARE[square] & ~(RANK_1 | RANK_8);
+            ROOK_MASKS[square] = (rankMask | fileMask) & ~squareBB;
+
+            long diagonals = DIAGONAL_MASKS_PER_SQUARE[square] | ANTI_DIAGONAL_MASKS_PER_SQUARE[square];
+            BISHOP_MASKS[square] = diagonals & ~edges & ~squareBB;
+        }
+
+        RandomGenerator random = new RandomGenerator(0x5DEECE66DL);
+        ROOK_ATTACKS = initializeTables(ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS, false, random);
+        BISHOP_ATTACKS = initializeTables(BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS, true, random);
+    }
+
+    public static long getRookAttacks(int square, long occupancy) {
+        int index = (int) (((occupancy & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return ROOK_ATTACKS[ROOK_OFFSETS[square] + index];
+    }
+
+    public static long getBishopAttacks(int square, long occupancy) {
+        int index = (int) (((occupancy & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BISHOP_ATTACKS[BISHOP_OFFSETS[square] + index];
+    }
+
+    private static long[] initializeTables(long[] masks, long[] magics, int[] shifts, int[] offsets,
+                                           boolean isBishop, RandomGenerator random) {
+        int tableSize = 0;
+        for (int square = 0; square < 64; square++) {
+            offsets[square] = tableSize;
+            tableSize += 1 << bitCount(masks[square]);
+        }
+
+        long[] attacks = new long[tableSize];
+        for (int square = 0; square < 64; square++) {
+            long mask = masks[square];
+            int bits = bitCount(mask);
+            int n_subsets = 1 << bits;
+
+            // Enumerate every blocker configuration of the mask (Carry-Rippler trick)
+            long[] occupancies = new long[n_subsets];
+            long[] references = new long[n_subsets];
+            long subset = 0;
+            for (int i = 0; i < n_subsets; i++) {
+                occupancies[i] = subset;
+                references[i] = isBishop ? Utils.getBishopMovesHyperbola(square, subset) : Utils.getRookMovesHyperbola(square, subset);
+                subset = (subset - mask) & mask;
+            }
+
+            shifts[square] = 64 - bits;
+            magics[square] = findMagic(mask, bits, occupancies, references, attacks, offsets[square], random);
+        }
+        return attacks;
+    }
+
+    private static long findMagic(long mask, int bits, long[] occupancies, long[] references,
+                                  long[] attacks, int offset, RandomGenerator random) {
+        int n_subsets = occupancies.length;
+        int shift = 64 - bits;
+        int[] usedInTry = new int[n_subsets];
+
+        for (int attempt = 1; ; attempt++) {
+            long magic = random.nextSparse();
+
+            // Good magics spread the mask bits into the top byte
+            if (bitCount((mask * magic) & 0xFF00000000000000L) < 6) continue;
+
+            boolean failed = false;
+            for (int i = 0; i < n_subsets && !failed; i++) {
+                int index = (int) ((occupancies[i] * magic) >>> shift);
+
+                // Collisions are fine if both occupancies give the same attacks
+                if (usedInTry[index] != attempt) {
+                    usedInTry[index] = attempt;
+                    attacks[offset + index] = references[i];
+                } else if (attacks[offset + index] != references[i]) {
+                    failed = true;
+                }
+            }
+
+            if (!failed) return magic;
+        }
+    }
+
+    // Xorshift generator, so the same magics are found on every run
+    private static class RandomGenerator {
+        private long state;
+
+        RandomGenerator(long seed) {
+            this.state = seed;
+        }
+
+        long next() {
+            state ^= state >>> 12;
+            state ^= state << 25;
+            state ^= state >>> 27;
+            return state * 2685821657736338717L;
+        }
+
+        // Magics with few set bits are found much faster
+        long nextSparse() {
+            return next() & next() & next();
+        }
+    }
+}
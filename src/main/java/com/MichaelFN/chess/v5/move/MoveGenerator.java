@@ -1,7 +1,5 @@
 package com.MichaelFN.chess.v5.move;
 
-import com.MichaelFN.chess.v5.Constants;
-import com.MichaelFN.chess.v5.Utils;
 import com.MichaelFN.chess.v5.board.Board;
 
 import static com.MichaelFN.chess.v5.Utils.*;
@@ -10,7 +8,19 @@ import static com.MichaelFN.chess.v5.Constants.*;
 import static com.MichaelFN.chess.v5.move.MoveTables.*;
 
 public class MoveGenerator {
-    private int currentPly = 0;
+    /**
+     * Legal move generation does not need to make and unmake every move to test it.
+     * Once per position it finds the pieces giving check and the pieces pinned to the king:
+     *
+     * - Check mask: squares a non-king move must land on. Every square when not in check,
+     *   the checker and the squares between it and the king when in single check, no squares in double check.
+     * - Pinned pieces may only move along the line through the king and themselves.
+     * - King moves are tested against the enemy attacks with the king removed from the occupancy,
+     *   so the king can not step back along the ray of a slider.
+     * - En passant removes two pieces from a rank, so it is tested separately against every enemy slider.
+     *
+     * Read more: <a href="https://www.chessprogramming.org/Move_Generation#Legal">...</a>
+     */
 
     public int[][] legalMoves = new int[MAX_PLY][MAX_MOVES_IN_POSITION];
     public int[] legalMoveCounts = new int[MAX_PLY];
@@ -18,81 +28,41 @@ public class MoveGenerator {
     public int[][] pseudoMoves = new int[MAX_PLY][MAX_MOVES_IN_POSITION];
     public int[] pseudoMoveCounts = new int[MAX_PLY];
 
-    private void addPseudoMove(int move) {
-        pseudoMoves[currentPly][pseudoMoveCounts[currentPly]++] = move;
-    }
+    // List being filled by the current generation
+    private int[] moveList;
+    private int moveCount;
+
+    private final int[] castlingMoves = new int[2];
 
-    private void addLegalMove(int move) {
-        legalMoves[currentPly][legalMoveCounts[currentPly]++] = move;
+    private void addMove(int move) {
+        moveList[moveCount++] = move;
     }
 
     public void generateLegalMoves(Board board, int ply) {
-        legalMoveCounts[ply] = 0;
-
-        generatePseudoLegalMoves(board, ply);
-
-        int player = board.playerToMove;
-        int opponent = 1 - player;
-
-        for (int i = 0; i < pseudoMoveCounts[currentPly]; i++) {
-            int move = pseudoMoves[currentPly][i];
-
-            // Quick sanity: If move is king move, verify destination not attacked
-            int fromSquare = Move.getFrom(move);
-            int movedPiece = board.pieceAtSquare[fromSquare];
-            if (movedPiece == Constants.KING) {
-                int to = Move.getTo(move);
-                long occupancy = board.pieces[Constants.WHITE][Constants.ALL_PIECES] | board.pieces[Constants.BLACK][Constants.ALL_PIECES];
-                if (Utils.isSquareAttacked(board, to, opponent, occupancy)) {
-                    continue; // Skip illegal king move
-                }
-            }
-
-            board.makeMove(move);
-
-            // Check if king is attacked after move
-            if (!Utils.isInCheck(board, player)) {
-                addLegalMove(move);
-            }
-            board.unmakeMove();
-        }
+        moveList = legalMoves[ply];
+        moveCount = 0;
+        generateLegal(board, true, true);
+        legalMoveCounts[ply] = moveCount;
     }
 
     public void generateLegalCaptures(Board board, int ply) {
-        legalMoveCounts[ply] = 0;
-
-        generatePseudoLegalCaptures(board, ply);
-
-        int player = board.playerToMove;
-        int opponent = 1 - player;
-
-        for (int i = 0; i < pseudoMoveCounts[currentPly]; i++) {
-            int move = pseudoMoves[currentPly][i];
-
-            // Quick sanity: If move is king move, verify destination not attacked
-            int fromSquare = Move.getFrom(move);
-            int movedPiece = board.pieceAtSquare[fromSquare];
-            if (movedPiece == Constants.KING) {
-                int to = Move.getTo(move);
-                long occupancy = board.pieces[Constants.WHITE][Constants.ALL_PIECES] | board.pieces[Constants.BLACK][Constants.ALL_PIECES];
-                if (Utils.isSquareAttacked(board, to, opponent, occupancy)) {
-                    continue; // Skip illegal king move
-                }
-            }
-
-            board.makeMove(move);
+        moveList = legalMoves[ply];
+        moveCount = 0;
+        generateLegal(board, true, false);
+        legalMoveCounts[ply] = moveCount;
+    }
 
-            // Check if king is attacked after move
-            if (!Utils.isInCheck(board, player)) {
-                addLegalMove(move);
-            }
-            board.unmakeMove();
-        }
+    // Non-captures only, including quiet promotions and castling
+    public void generateLegalQuiets(Board board, int ply) {
+        moveList = legalMoves[ply];
+        moveCount = 0;
+        generateLegal(board, false, true);
+        legalMoveCounts[ply] = moveCount;
     }
 
     public void generatePseudoLegalMoves(Board board, int ply) {
-        currentPly = ply;
-        pseudoMoveCounts[ply] = 0;
+        moveList = pseudoMoves[ply];
+        moveCount = 0;
 
         int player = board.playerToMove;
         int opponent = 1 - board.playerToMove;
@@ -103,18 +73,20 @@ public class MoveGenerator {
 
         long[] pieces = board.pieces[player];
 
-        generatePawnMoves(pieces[PAWN], player, empty, enemies, board.enPassantSquare);
-        generateKnightMoves(pieces[KNIGHT], allies, enemies);
-        generateBishopMoves(pieces[BISHOP], allies, enemies, occupancy);
-        generateRookMoves(pieces[ROOK], allies, enemies, occupancy);
-        generateQueenMoves(pieces[QUEEN], allies, enemies, occupancy);
-        generateKingMoves(pieces[KING], allies, enemies);
+        generatePawnMoves(pieces[PAWN], player, empty, empty, enemies, enPassantBitboard(board));
+        generateKnightMoves(pieces[KNIGHT], ~allies, enemies);
+        generateBishopMoves(pieces[BISHOP], ~allies, enemies, occupancy, 0L, 0);
+        generateRookMoves(pieces[ROOK], ~allies, enemies, occupancy, 0L, 0);
+        generateQueenMoves(pieces[QUEEN], ~allies, enemies, occupancy, 0L, 0);
+        generateKingMoves(pieces[KING], ~allies, enemies);
         generateCastlingMoves(occupancy, board.castlingRights, player, board);
+
+        pseudoMoveCounts[ply] = moveCount;
     }
 
     public void generatePseudoLegalCaptures(Board board, int ply) {
-        currentPly = ply;
-        pseudoMoveCounts[currentPly] = 0;
+        moveList = pseudoMoves[ply];
+        moveCount = 0;
 
         int player = board.playerToMove;
         int opponent = 1 - board.playerToMove;
@@ -124,12 +96,199 @@ public class MoveGenerator {
 
         long[] pieces = board.pieces[player];
 
-        generatePawnCaptures(pieces[PAWN], player, enemies, board.enPassantSquare);
-        generateKnightCaptures(pieces[KNIGHT], enemies);
-        generateBishopCaptures(pieces[BISHOP], enemies, occupancy);
-        generateRookCaptures(pieces[ROOK], enemies, occupancy);
-        generateQueenCaptures(pieces[QUEEN], enemies, occupancy);
-        generateKingCaptures(pieces[KING], enemies);
+        generatePawnMoves(pieces[PAWN], player, ~occupancy, 0L, enemies, enPassantBitboard(board));
+        generateKnightMoves(pieces[KNIGHT], enemies, enemies);
+        generateBishopMoves(pieces[BISHOP], enemies, enemies, occupancy, 0L, 0);
+        generateRookMoves(pieces[ROOK], enemies, enemies, occupancy, 0L, 0);
+        generateQueenMoves(pieces[QUEEN], enemies, enemies, occupancy, 0L, 0);
+        generateKingMoves(pieces[KING], enemies, enemies);
+
+        pseudoMoveCounts[ply] = moveCount;
+    }
+
+    private void generateLegal(Board board, boolean includeCaptures, boolean includeQuiets) {
+        int player = board.playerToMove;
+        int opponent = 1 - player;
+        long[] pieces = board.pieces[player];
+        long[] enemyPieces = board.pieces[opponent];
+        long allies = pieces[ALL_PIECES];
+        long enemies = enemyPieces[ALL_PIECES];
+        long occupancy = allies | enemies;
+        long empty = ~occupancy;
+
+        long king = pieces[KING];
+        int kingSquare = lsb(king);
+        long enemyDiagonalSliders = enemyPieces[BISHOP] | enemyPieces[QUEEN];
+        long enemyStraightSliders = enemyPieces[ROOK] | enemyPieces[QUEEN];
+
+        // Pieces giving check
+        long checkers = (PAWN_ATTACK_MASKS[player][kingSquare] & enemyPieces[PAWN]) |
+                (KNIGHT_MOVE_MASKS[kingSquare] & enemyPieces[KNIGHT]) |
+                (getBishopMoves(kingSquare, occupancy) & enemyDiagonalSliders) |
+                (getRookMoves(kingSquare, occupancy) & enemyStraightSliders);
+
+        // King moves: destination must not be attacked once the king has left its square
+        long kingTargets = (includeCaptures ? enemies : 0L) | (includeQuiets ? empty : 0L);
+        long kingMoves = KING_MOVE_MASKS[kingSquare] & kingTargets;
+        long occupancyWithoutKing = occupancy ^ king;
+        while (kingMoves != 0) {
+            int toSquare = lsb(kingMoves);
+            if (!isSquareAttacked(board, toSquare, opponent, occupancyWithoutKing)) {
+                addMove(hasBit(enemies, toSquare)
+                        ? Move.createCapture(kingSquare, toSquare)
+                        : Move.createQuietMove(kingSquare, toSquare));
+            }
+            kingMoves = clearLsb(kingMoves);
+        }
+
+        // Double check: only the king can move
+        if (bitCount(checkers) > 1) return;
+
+        long checkMask = checkers == 0 ? ~0L : checkers | BETWEEN_MASKS[kingSquare][lsb(checkers)];
+
+        // Own pieces that are the only blocker between the king and an enemy slider
+        long pinned = 0L;
+        long snipers = (getBishopMoves(kingSquare, enemies) & enemyDiagonalSliders) |
+                (getRookMoves(kingSquare, enemies) & enemyStraightSliders);
+        while (snipers != 0) {
+            long blockers = BETWEEN_MASKS[kingSquare][lsb(snipers)] & occupancy;
+            if (bitCount(blockers) == 1 && (blockers & allies) != 0) pinned |= blockers;
+            snipers = clearLsb(snipers);
+        }
+
+        long targets = kingTargets & checkMask;
+        long pushTargets = includeQuiets ? empty & checkMask : 0L;
+        long captureTargets = includeCaptures ? enemies & checkMask : 0L;
+
+        // Pawns: unpinned pawns in bulk, pinned pawns one at a time along their pin line
+        long pawns = pieces[PAWN];
+        generatePawnMoves(pawns & ~pinned, player, empty, pushTargets, captureTargets, 0L);
+        long pinnedPawns = pawns & pinned;
+        while (pinnedPawns != 0) {
+            int fromSquare = lsb(pinnedPawns);
+            long pinLine = LINE_MASKS[kingSquare][fromSquare];
+            generatePawnMoves(SQUARE_BB_LOOK_UP[fromSquare], player, empty, pushTargets & pinLine, captureTargets & pinLine, 0L);
+            pinnedPawns = clearLsb(pinnedPawns);
+        }
+        if (includeCaptures) generateLegalEnPassant(board, pawns, kingSquare, occupancy, checkMask, enemyDiagonalSliders, enemyStraightSliders);
+
+        // A pinned knight can never move
+        generateKnightMoves(pieces[KNIGHT] & ~pinned, targets, enemies);
+        generateBishopMoves(pieces[BISHOP], targets, enemies, occupancy, pinned, kingSquare);
+        generateRookMoves(pieces[ROOK], targets, enemies, occupancy, pinned, kingSquare);
+        generateQueenMoves(pieces[QUEEN], targets, enemies, occupancy, pinned, kingSquare);
+
+        if (includeQuiets && checkers == 0) {
+            generateCastlingMoves(occupancy, board.castlingRights, player, board);
+        }
+    }
+
+    private void generateLegalEnPassant(Board board, long pawns, int kingSquare, long occupancy, long checkMask,
+                                        long enemyDiagonalSliders, long enemyStraightSliders) {
+        int enPassantSquare = board.enPassantSquare;
+        if (enPassantSquare == -1) return;
+
+        int player = board.playerToMove;
+        int captureSquare = enPassantSquare + (player == WHITE ? -8 : 8);
+        long toBB = SQUARE_BB_LOOK_UP[enPassantSquare];
+        long captureBB = SQUARE_BB_LOOK_UP[captureSquare];
+
+        // When in check, en passant has to capture the checking pawn or block the check
+        if (((toBB | captureBB) & checkMask) == 0) return;
+
+        // Our pawns that attack the en passant square
+        long attackers = PAWN_ATTACK_MASKS[1 - player][enPassantSquare] & pawns;
+        while (attackers != 0) {
+            int fromSquare = lsb(attackers);
+
+            // Covers pins, blocked checks and the two pawns leaving the king's rank at once
+            long occupancyAfter = occupancy ^ SQUARE_BB_LOOK_UP[fromSquare] ^ captureBB ^ toBB;
+            if ((getBishopMoves(kingSquare, occupancyAfter) & enemyDiagonalSliders) == 0 &&
+                    (getRookMoves(kingSquare, occupancyAfter) & enemyStraightSliders) == 0) {
+                addMove(Move.createEnPassantCapture(fromSquare, enPassantSquare));
+            }
+            attackers = clearLsb(attackers);
+        }
+    }
+
+    // Checks a move that did not come from the generator (transposition table, killers) against the position.
+    // Only moves the generator could have produced pass, so they can be made on the board safely.
+    public boolean isPseudoLegal(Board board, int move) {
+        if (move == 0) return false;
+
+        int player = board.playerToMove;
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        int flags = Move.getFlags(move);
+        int promotionPiece = Move.getPromotionPiece(move);
+        long allies = board.pieces[player][ALL_PIECES];
+        long enemies = board.pieces[1 - player][ALL_PIECES];
+        long occupancy = allies | enemies;
+
+        if (!hasBit(allies, from) || hasBit(allies, to)) return false;
+        int piece = board.pieceAtSquare[from];
+
+        if (Move.isCastleKingSide(move) || Move.isCastleQueenSide(move)) {
+            if (piece != KING) return false;
+            moveList = castlingMoves;
+            moveCount = 0;
+            generateCastlingMoves(occupancy, board.castlingRights, player, board);
+            for (int i = 0; i < moveCount; i++) {
+                if (castlingMoves[i] == move) return true;
+            }
+            return false;
+        }
+
+        if (Move.isEnPassant(move)) {
+            return piece == PAWN && to == board.enPassantSquare && promotionPiece == 0 &&
+                    flags == (Move.FLAG_EN_PASSANT | Move.FLAG_CAPTURE) &&
+                    hasBit(PAWN_ATTACK_MASKS[player][from], to);
+        }
+
+        // The capture flag must match the target square
+        if (Move.isCapture(move) != hasBit(enemies, to)) return false;
+
+        if (piece == PAWN) {
+            boolean reachesLastRank = hasBit(player == WHITE ? RANK_8 : RANK_1, to);
+            if (Move.isPromotion(move) != reachesLastRank) return false;
+            if (Move.isPromotion(move) ? promotionPiece < KNIGHT || promotionPiece > QUEEN : promotionPiece != 0) return false;
+
+            int forward = player == WHITE ? 8 : -8;
+            if (Move.isCapture(move)) {
+                return (flags & ~Move.FLAG_PROMOTION) == Move.FLAG_CAPTURE && hasBit(PAWN_ATTACK_MASKS[player][from], to);
+            }
+            if (Move.isDoublePawnPush(move)) {
+                return flags == Move.FLAG_DOUBLE_PAWN_PUSH && hasBit(player == WHITE ? RANK_2 : RANK_7, from) &&
+                        to == from + 2 * forward && !hasBit(occupancy, from + forward) && !hasBit(occupancy, to);
+            }
+            return (flags & ~Move.FLAG_PROMOTION) == 0 && to == from + forward && !hasBit(occupancy, to);
+        }
+
+        // Pieces only make quiet moves and plain captures
+        if ((flags & ~Move.FLAG_CAPTURE) != 0 || promotionPiece != 0) return false;
+
+        long attacks = switch (piece) {
+            case KNIGHT -> KNIGHT_MOVE_MASKS[from];
+            case BISHOP -> getBishopMoves(from, occupancy);
+            case ROOK -> getRookMoves(from, occupancy);
+            case QUEEN -> getBishopMoves(from, occupancy) | getRookMoves(from, occupancy);
+            case KING -> KING_MOVE_MASKS[from];
+            default -> 0L;
+        };
+        return hasBit(attacks, to);
+    }
+
+    // Expects a pseudo-legal move
+    public boolean isLegal(Board board, int move) {
+        int player = board.playerToMove;
+        board.makeMove(move);
+        boolean isLegal = !isInCheck(board, player);
+        board.unmakeMove();
+        return isLegal;
+    }
+
+    private static long enPassantBitboard(Board board) {
+        return board.enPassantSquare == -1 ? 0L : SQUARE_BB_LOOK_UP[board.enPassantSquare];
     }
 
     private void generateCastlingMoves(long occupancy, int castlingRights, int color, Board board) {
@@ -144,7 +303,7 @@ public class MoveGenerator {
                                 isSquareAttacked(board, G1, BLACK, occupancy)
                 );
                 if (empty && safe) {
-                    addPseudoMove(Move.createCastleKingSide(E1, G1));
+                    addMove(Move.createCastleKingSide(E1, G1));
                 }
             }
 
@@ -157,7 +316,7 @@ public class MoveGenerator {
                                 isSquareAttacked(board, C1, BLACK, occupancy)
                 );
                 if (empty && safe) {
-                    addPseudoMove(Move.createCastleQueenSide(E1, C1));
+                    addMove(Move.createCastleQueenSide(E1, C1));
                 }
             }
         }
@@ -173,7 +332,7 @@ public class MoveGenerator {
                                 isSquareAttacked(board, G8, WHITE, occupancy)
                 );
                 if (empty && safe) {
-                    addPseudoMove(Move.createCastleKingSide(E8, G8));
+                    addMove(Move.createCastleKingSide(E8, G8));
                 }
             }
 
@@ -186,15 +345,15 @@ public class MoveGenerator {
                                 isSquareAttacked(board, C8, WHITE, occupancy)
                 );
                 if (empty && safe) {
-                    addPseudoMove(Move.createCastleQueenSide(E8, C8));
+                    addMove(Move.createCastleQueenSide(E8, C8));
                 }
             }
         }
     }
 
-    private void generateKingMoves(long king, long allies, long enemies) {
+    private void generateKingMoves(long king, long targets, long enemies) {
         int fromSquare = lsb(king);
-        long moves = KING_MOVE_MASKS[fromSquare] & ~allies;
+        long moves = KING_MOVE_MASKS[fromSquare] & targets;
 
         while (moves != 0) {
             int toSquare = lsb(moves);
@@ -202,36 +361,21 @@ public class MoveGenerator {
             int move = isCapture
                     ? Move.createCapture(fromSquare, toSquare)
                     : Move.createQuietMove(fromSquare, toSquare);
-            addPseudoMove(move);
+            addMove(move);
             moves = clearLsb(moves);
         }
     }
 
-    private void generateKingCaptures(long king, long enemies) {
-        int fromSquare = lsb(king);
-        long moves = KING_MOVE_MASKS[fromSquare] & enemies;
-        while (moves != 0) {
-            int toSquare = lsb(moves);
-            int move = Move.createCapture(fromSquare, toSquare);
-            addPseudoMove(move);
-            moves = clearLsb(moves);
-        }
+    private void generateQueenMoves(long queens, long targets, long enemies, long occupancy, long pinned, int kingSquare) {
+        generateBishopMoves(queens, targets, enemies, occupancy, pinned, kingSquare);
+        generateRookMoves(queens, targets, enemies, occupancy, pinned, kingSquare);
     }
 
-    private void generateQueenMoves(long queens, long allies, long enemies, long occupancy) {
-        generateBishopMoves(queens, allies, enemies, occupancy);
-        generateRookMoves(queens, allies, enemies, occupancy);
-    }
-
-    private void generateQueenCaptures(long queens, long enemies, long occupancy) {
-        generateBishopCaptures(queens, enemies, occupancy);
-        generateRookCaptures(queens, enemies, occupancy);
-    }
-
-    private void generateBishopMoves(long bishops, long allies, long enemies, long occupancy) {
+    private void generateBishopMoves(long bishops, long targets, long enemies, long occupancy, long pinned, int kingSquare) {
         while (bishops != 0) {
             int fromSquare = lsb(bishops);
-            long moves = getBishopMoves(fromSquare, occupancy) & ~allies;
+            long moves = getBishopMoves(fromSquare, occupancy) & targets;
+            if (hasBit(pinned, fromSquare)) moves &= LINE_MASKS[kingSquare][fromSquare];
 
             while (moves != 0) {
                 int toSquare = lsb(moves);
@@ -239,7 +383,7 @@ public class MoveGenerator {
                 int move = isCapture
                         ? Move.createCapture(fromSquare, toSquare)
                         : Move.createQuietMove(fromSquare, toSquare);
-                addPseudoMove(move);
+                addMove(move);
                 moves = clearLsb(moves);
             }
 
@@ -247,26 +391,11 @@ public class MoveGenerator {
         }
     }
 
-    private void generateBishopCaptures(long bishops, long enemies, long occupancy) {
-        while (bishops != 0) {
-            int fromSquare = lsb(bishops);
-            long moves = getBishopMoves(fromSquare, occupancy) & enemies;
-
-            while (moves != 0) {
-                int toSquare = lsb(moves);
-                int move = Move.createCapture(fromSquare, toSquare);
-                addPseudoMove(move);
-                moves = clearLsb(moves);
-            }
-
-            bishops = clearLsb(bishops);
-        }
-    }
-
-    private void generateRookMoves(long rooks, long allies, long enemies, long occupancy) {
+    private void generateRookMoves(long rooks, long targets, long enemies, long occupancy, long pinned, int kingSquare) {
         while (rooks != 0) {
             int fromSquare = lsb(rooks);
-            long moves = getRookMoves(fromSquare, occupancy) & ~allies;
+            long moves = getRookMoves(fromSquare, occupancy) & targets;
+            if (hasBit(pinned, fromSquare)) moves &= LINE_MASKS[kingSquare][fromSquare];
 
             while (moves != 0) {
                 int toSquare = lsb(moves);
@@ -274,7 +403,7 @@ public class MoveGenerator {
                 int move = isCapture
                         ? Move.createCapture(fromSquare, toSquare)
                         : Move.createQuietMove(fromSquare, toSquare);
-                addPseudoMove(move);
+                addMove(move);
                 moves = clearLsb(moves);
             }
 
@@ -282,26 +411,9 @@ public class MoveGenerator {
         }
     }
 
-    private void generateRookCaptures(long rooks, long enemies, long occupancy) {
-        while (rooks != 0) {
-            int fromSquare = lsb(rooks);
-            long moves = getRookMoves(fromSquare, occupancy) & enemies;
-
-            while (moves != 0) {
-                int toSquare = lsb(moves);
-                int move = Move.createCapture(fromSquare, toSquare);
-                addPseudoMove(move);
-                moves = clearLsb(moves);
-            }
-
-            rooks = clearLsb(rooks);
-        }
-    }
-
-    private void generateKnightMoves(long knights, long allies, long enemies) {
+    private void generateKnightMoves(long knights, long targets, long enemies) {
         while (knights != 0) {
             int fromSquare = lsb(knights);
-            long targets = ~(allies);
             long moves = KNIGHT_MOVE_MASKS[fromSquare] & targets;
 
             while (moves != 0) {
@@ -310,7 +422,7 @@ public class MoveGenerator {
                 int move = isCapture
                         ? Move.createCapture(fromSquare, toSquare)
                         : Move.createQuietMove(fromSquare, toSquare);
-                addPseudoMove(move);
+                addMove(move);
                 moves = clearLsb(moves);
             }
 
@@ -318,292 +430,93 @@ public class MoveGenerator {
         }
     }
 
-    private void generateKnightCaptures(long knights, long enemies) {
-        while (knights != 0) {
-            int fromSquare = lsb(knights);
-            long moves = KNIGHT_MOVE_MASKS[fromSquare] & enemies;
-
-            while (moves != 0) {
-                int toSquare = lsb(moves);
-                int move = Move.createCapture(fromSquare, toSquare);
-                addPseudoMove(move);
-                moves = clearLsb(moves);
-            }
-            knights = clearLsb(knights);
-        }
-    }
-
-    private void generatePawnMoves(long pawns, int color, long empty, long enemies, int enPassantSquare) {
-        long enPassantBB = enPassantSquare == -1 ? 0 : SQUARE_BB_LOOK_UP[enPassantSquare];
-
+    // Pushes land on pushTargets (the intermediate square of a double push only has to be empty),
+    // captures land on captureTargets. Promotions are generated for both.
+    private void generatePawnMoves(long pawns, int color, long empty, long pushTargets, long captureTargets, long enPassantBB) {
         if (color == WHITE) {
-            long singlePushes = (pawns << 8) & empty;
-            long doublePushes = ((pawns & RANK_2) << 8 & empty) << 8 & empty;
+            long singlePushes = (pawns << 8) & pushTargets;
+            long doublePushes = ((pawns & RANK_2) << 8 & empty) << 8 & pushTargets;
 
-            long leftCaptures = (pawns << 7) & enemies & ~FILE_H;
-            long rightCaptures = (pawns << 9) & enemies & ~FILE_A;
+            long leftCaptures = (pawns << 7) & captureTargets & ~FILE_H;
+            long rightCaptures = (pawns << 9) & captureTargets & ~FILE_A;
 
             long enPassantLeftCaptures  = (pawns << 7) & enPassantBB & ~FILE_H;
             long enPassantRightCaptures = (pawns << 9) & enPassantBB & ~FILE_A;
 
-
-            // Loop through each move and create it
-            while (singlePushes != 0) {
-                int toSquare = lsb(singlePushes);
-                int fromSquare = toSquare - 8;
-                if (toSquare > 55) {
-                    addPseudoMove(Move.createPromotionMove(fromSquare, toSquare, QUEEN));
-                    addPseudoMove(Move.createPromotionMove(fromSquare, toSquare, ROOK));
-                    addPseudoMove(Move.createPromotionMove(fromSquare, toSquare, BISHOP));
-                    addPseudoMove(Move.createPromotionMove(fromSquare, toSquare, KNIGHT));
-                } else {
-                    addPseudoMove(Move.createQuietMove(fromSquare, toSquare));
-                }
-                singlePushes = clearLsb(singlePushes);
-            }
-
-            while (doublePushes != 0) {
-                int toSquare = lsb(doublePushes);
-                int fromSquare = toSquare - 16;
-                int move = Move.createDoublePawnPush(fromSquare, toSquare);
-                addPseudoMove(move);
-                doublePushes = clearLsb(doublePushes);
-            }
-
-            while (leftCaptures != 0) {
-                int toSquare = lsb(leftCaptures);
-                int fromSquare = toSquare - 7;
-                if (toSquare > 55) {
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, QUEEN));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, ROOK));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, BISHOP));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, KNIGHT));
-                } else {
-                    addPseudoMove(Move.createCapture(fromSquare, toSquare));
-                }
-                leftCaptures = clearLsb(leftCaptures);
-            }
-
-            while (rightCaptures != 0) {
-                int toSquare = lsb(rightCaptures);
-                int fromSquare = toSquare - 9;
-                if (toSquare > 55) {
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, QUEEN));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, ROOK));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, BISHOP));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, KNIGHT));
-                } else {
-                    addPseudoMove(Move.createCapture(fromSquare, toSquare));
-                }
-                rightCaptures = clearLsb(rightCaptures);
-            }
-
-            while (enPassantLeftCaptures != 0) {
-                int toSquare = lsb(enPassantLeftCaptures);
-                int fromSquare = toSquare - 7;
-                int move = Move.createEnPassantCapture(fromSquare, toSquare);
-                addPseudoMove(move);
-                enPassantLeftCaptures = clearLsb(enPassantLeftCaptures);
-            }
-
-            while (enPassantRightCaptures != 0) {
-                int toSquare = lsb(enPassantRightCaptures);
-                int fromSquare = toSquare - 9;
-                int move = Move.createEnPassantCapture(fromSquare, toSquare);
-                addPseudoMove(move);
-                enPassantRightCaptures = clearLsb(enPassantRightCaptures);
-            }
+            addPawnPushes(singlePushes, -8, 55, false);
+            addDoublePawnPushes(doublePushes, -16);
+            addPawnCaptures(leftCaptures, -7, 55, false);
+            addPawnCaptures(rightCaptures, -9, 55, false);
+            addEnPassantCaptures(enPassantLeftCaptures, -7);
+            addEnPassantCaptures(enPassantRightCaptures, -9);
         }
 
         // Black
         else {
-            long singlePushes = (pawns >>> 8) & empty;
-            long doublePushes = ((pawns & RANK_7) >>> 8 & empty) >>> 8 & empty;
+            long singlePushes = (pawns >>> 8) & pushTargets;
+            long doublePushes = ((pawns & RANK_7) >>> 8 & empty) >>> 8 & pushTargets;
 
-            long leftCaptures  = (pawns >>> 9) & enemies & ~FILE_H;
-            long rightCaptures = (pawns >>> 7) & enemies & ~FILE_A;
+            long leftCaptures  = (pawns >>> 9) & captureTargets & ~FILE_H;
+            long rightCaptures = (pawns >>> 7) & captureTargets & ~FILE_A;
 
             long enPassantLeftCaptures  = (pawns >>> 9) & enPassantBB & ~FILE_H;
             long enPassantRightCaptures = (pawns >>> 7) & enPassantBB & ~FILE_A;
 
-            // Loop through each move and create it
-            while (singlePushes != 0) {
-                int toSquare = lsb(singlePushes);
-                int fromSquare = toSquare + 8;
-                if (toSquare < 8) {
-                    addPseudoMove(Move.createPromotionMove(fromSquare, toSquare, QUEEN));
-                    addPseudoMove(Move.createPromotionMove(fromSquare, toSquare, ROOK));
-                    addPseudoMove(Move.createPromotionMove(fromSquare, toSquare, BISHOP));
-                    addPseudoMove(Move.createPromotionMove(fromSquare, toSquare, KNIGHT));
-                } else {
-                    addPseudoMove(Move.createQuietMove(fromSquare, toSquare));
-                }
-                singlePushes = clearLsb(singlePushes);
-            }
-
-            while (doublePushes != 0) {
-                int toSquare = lsb(doublePushes);
-                int fromSquare = toSquare + 16;
-                int move = Move.createDoublePawnPush(fromSquare, toSquare);
-                addPseudoMove(move);
-                doublePushes = clearLsb(doublePushes);
-            }
-
-            while (leftCaptures != 0) {
-                int toSquare = lsb(leftCaptures);
-                int fromSquare = toSquare + 9;
-                if (toSquare < 8) {
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, QUEEN));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, ROOK));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, BISHOP));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, KNIGHT));
-                } else {
-                    addPseudoMove(Move.createCapture(fromSquare, toSquare));
-                }
-                leftCaptures = clearLsb(leftCaptures);
-            }
-
-            while (rightCaptures != 0) {
-                int toSquare = lsb(rightCaptures);
-                int fromSquare = toSquare + 7;
-                if (toSquare < 8) {
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, QUEEN));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, ROOK));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, BISHOP));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, KNIGHT));
-                } else {
-                    addPseudoMove(Move.createCapture(fromSquare, toSquare));
-                }
-                rightCaptures = clearLsb(rightCaptures);
-            }
-
-            while (enPassantLeftCaptures != 0) {
-                int toSquare = lsb(enPassantLeftCaptures);
-                int fromSquare = toSquare + 9;
-                int move = Move.createEnPassantCapture(fromSquare, toSquare);
-                addPseudoMove(move);
-                enPassantLeftCaptures = clearLsb(enPassantLeftCaptures);
-            }
-
-            while (enPassantRightCaptures != 0) {
-                int toSquare = lsb(enPassantRightCaptures);
-                int fromSquare = toSquare + 7;
-                int move = Move.createEnPassantCapture(fromSquare, toSquare);
-                addPseudoMove(move);
-                enPassantRightCaptures = clearLsb(enPassantRightCaptures);
-            }
+            addPawnPushes(singlePushes, 8, 8, true);
+            addDoublePawnPushes(doublePushes, 16);
+            addPawnCaptures(leftCaptures, 9, 8, true);
+            addPawnCaptures(rightCaptures, 7, 8, true);
+            addEnPassantCaptures(enPassantLeftCaptures, 9);
+            addEnPassantCaptures(enPassantRightCaptures, 7);
         }
     }
 
-    private void generatePawnCaptures(long pawns, int color, long enemies, int enPassantSquare) {
-        long enPassantBB = enPassantSquare == -1 ? 0 : SQUARE_BB_LOOK_UP[enPassantSquare];
-
-        if (color == WHITE) {
-            long leftCaptures = (pawns << 7) & enemies & ~FILE_H;
-            long rightCaptures = (pawns << 9) & enemies & ~FILE_A;
-
-            long enPassantLeftCaptures  = (pawns << 7) & enPassantBB & ~FILE_H;
-            long enPassantRightCaptures = (pawns << 9) & enPassantBB & ~FILE_A;
-
-
-            // Loop through each move and create it
-            while (leftCaptures != 0) {
-                int toSquare = lsb(leftCaptures);
-                int fromSquare = toSquare - 7;
-                if (toSquare > 55) {
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, QUEEN));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, ROOK));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, BISHOP));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, KNIGHT));
-                } else {
-                    addPseudoMove(Move.createCapture(fromSquare, toSquare));
-                }
-                leftCaptures = clearLsb(leftCaptures);
-            }
-
-            while (rightCaptures != 0) {
-                int toSquare = lsb(rightCaptures);
-                int fromSquare = toSquare - 9;
-                if (toSquare > 55) {
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, QUEEN));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, ROOK));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, BISHOP));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, KNIGHT));
-                } else {
-                    addPseudoMove(Move.createCapture(fromSquare, toSquare));
-                }
-                rightCaptures = clearLsb(rightCaptures);
-            }
-
-            while (enPassantLeftCaptures != 0) {
-                int toSquare = lsb(enPassantLeftCaptures);
-                int fromSquare = toSquare - 7;
-                int move = Move.createEnPassantCapture(fromSquare, toSquare);
-                addPseudoMove(move);
-                enPassantLeftCaptures = clearLsb(enPassantLeftCaptures);
-            }
-
-            while (enPassantRightCaptures != 0) {
-                int toSquare = lsb(enPassantRightCaptures);
-                int fromSquare = toSquare - 9;
-                int move = Move.createEnPassantCapture(fromSquare, toSquare);
-                addPseudoMove(move);
-                enPassantRightCaptures = clearLsb(enPassantRightCaptures);
-            }
+    // fromOffset: from square relative to the to square. Promotion rank: to > promotionBound for white, to < promotionBound for black
+    private void addPawnPushes(long pushes, int fromOffset, int promotionBound, boolean isBlack) {
+        while (pushes != 0) {
+            int toSquare = lsb(pushes);
+            int fromSquare = toSquare + fromOffset;
+            if (isBlack ? toSquare < promotionBound : toSquare > promotionBound) {
+                addMove(Move.createPromotionMove(fromSquare, toSquare, QUEEN));
+                addMove(Move.createPromotionMove(fromSquare, toSquare, ROOK));
+                addMove(Move.createPromotionMove(fromSquare, toSquare, BISHOP));
+                addMove(Move.createPromotionMove(fromSquare, toSquare, KNIGHT));
+            } else {
+                addMove(Move.createQuietMove(fromSquare, toSquare));
+            }
+            pushes = clearLsb(pushes);
         }
+    }
 
-        // Black
-        else {
-            long leftCaptures  = (pawns >>> 9) & enemies & ~FILE_H;
-            long rightCaptures = (pawns >>> 7) & enemies & ~FILE_A;
-
-            long enPassantLeftCaptures  = (pawns >>> 9) & enPassantBB & ~FILE_H;
-            long enPassantRightCaptures = (pawns >>> 7) & enPassantBB & ~FILE_A;
-
-            // Loop through each move and create it
-            while (leftCaptures != 0) {
-                int toSquare = lsb(leftCaptures);
-                int fromSquare = toSquare + 9;
-                if (toSquare < 8) {
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, QUEEN));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, ROOK));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, BISHOP));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, KNIGHT));
-                } else {
-                    addPseudoMove(Move.createCapture(fromSquare, toSquare));
-                }
-                leftCaptures = clearLsb(leftCaptures);
-            }
-
-            while (rightCaptures != 0) {
-                int toSquare = lsb(rightCaptures);
-                int fromSquare = toSquare + 7;
-                if (toSquare < 8) {
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, QUEEN));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, ROOK));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, BISHOP));
-                    addPseudoMove(Move.createPromotionCapture(fromSquare, toSquare, KNIGHT));
-                } else {
-                    addPseudoMove(Move.createCapture(fromSquare, toSquare));
-                }
-                rightCaptures = clearLsb(rightCaptures);
-            }
+    private void addDoublePawnPushes(long pushes, int fromOffset) {
+        while (pushes != 0) {
+            int toSquare = lsb(pushes);
+            addMove(Move.createDoublePawnPush(toSquare + fromOffset, toSquare));
+            pushes = clearLsb(pushes);
+        }
+    }
 
-            while (enPassantLeftCaptures != 0) {
-                int toSquare = lsb(enPassantLeftCaptures);
-                int fromSquare = toSquare + 9;
-                int move = Move.createEnPassantCapture(fromSquare, toSquare);
-                addPseudoMove(move);
-                enPassantLeftCaptures = clearLsb(enPassantLeftCaptures);
-            }
+    private void addPawnCaptures(long captures, int fromOffset, int promotionBound, boolean isBlack) {
+        while (captures != 0) {
+            int toSquare = lsb(captures);
+            int fromSquare = toSquare + fromOffset;
+            if (isBlack ? toSquare < promotionBound : toSquare > promotionBound) {
+                addMove(Move.createPromotionCapture(fromSquare, toSquare, QUEEN));
+                addMove(Move.createPromotionCapture(fromSquare, toSquare, ROOK));
+                addMove(Move.createPromotionCapture(fromSquare, toSquare, BISHOP));
+                addMove(Move.createPromotionCapture(fromSquare, toSquare, KNIGHT));
+            } else {
+                addMove(Move.createCapture(fromSquare, toSquare));
+            }
+            captures = clearLsb(captures);
+        }
+    }
 
-            while (enPassantRightCaptures != 0) {
-                int toSquare = lsb(enPassantRightCaptures);
-                int fromSquare = toSquare + 7;
-                int move = Move.createEnPassantCapture(fromSquare, toSquare);
-                addPseudoMove(move);
-                enPassantRightCaptures = clearLsb(enPassantRightCaptures);
-            }
+    private void addEnPassantCaptures(long captures, int fromOffset) {
+        while (captures != 0) {
+            int toSquare = lsb(captures);
+            addMove(Move.createEnPassantCapture(toSquare + fromOffset, toSquare));
+            captures = clearLsb(captures);
         }
     }
 }
@@ -1,5 +1,7 @@
 package com.MichaelFN.chess.v5.move;
 
+import com.MichaelFN.chess.v5.Utils;
+
 import static com.MichaelFN.chess.v5.board.Bitboard.*;
 import static com.MichaelFN.chess.v5.Constants.*;
 
@@ -51,4 +53,30 @@ public class MoveTables {
             KING_MOVE_MASKS[square] = mask;
         }
     }
-}
\ No newline at end of file
+
+    // Squares strictly between two squares on the same rank, file or diagonal [from][to], otherwise empty
+    public static long[][] BETWEEN_MASKS = new long[64][64];
+
+    // The whole rank, file or diagonal through two aligned squares [from][to], otherwise empty
+    public static long[][] LINE_MASKS = new long[64][64];
+
+    static {
+        for (int from = 0; from < 64; from++) {
+            long fromBB = SQUARE_BB_LOOK_UP[from];
+            long rookRays = Utils.getRookMovesHyperbola(from, 0L);
+            long bishopRays = Utils.getBishopMovesHyperbola(from, 0L);
+
+            for (int to = 0; to < 64; to++) {
+                long toBB = SQUARE_BB_LOOK_UP[to];
+
+                if ((rookRays & toBB) != 0) {
+                    BETWEEN_MASKS[from][to] = Utils.getRookMovesHyperbola(from, toBB) & Utils.getRookMovesHyperbola(to, fromBB);
+                    LINE_MASKS[from][to] = (rookRays & Utils.getRookMovesHyperbola(to, 0L)) | fromBB | toBB;
+                } else if ((bishopRays & toBB) != 0) {
+                    BETWEEN_MASKS[from][to] = Utils.getBishopMovesHyperbola(from, toBB) & Utils.getBishopMovesHyperbola(to, fromBB);
+                    LINE_MASKS[from][to] = (bishopRays & Utils.getBishopMovesHyperbola(to, 0L)) | fromBB | toBB;
+                }
+            }
+        }
+    }
+}
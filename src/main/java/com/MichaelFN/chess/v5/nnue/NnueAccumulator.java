@@ -0,0 +1,125 @@
+package com.MichaelFN.chess.v5.nnue;
+
+import com.MichaelFN.chess.v5.board.Board;
+
+import static com.MichaelFN.chess.v5.Constants.*;
+import static com.MichaelFN.chess.v5.board.Bitboard.*;
+import static com.MichaelFN.chess.v5.nnue.NnueNetwork.HIDDEN_SIZE;
+
+public class NnueAccumulator {
+    /**
+     * Feature transformer output of both perspectives, kept up to date by the board:
+     * makeMove pushes a copy of the current entry and applies the piece changes to it, unmakeMove pops it.
+     *
+     * An entry that no longer matches the board is marked invalid and recomputed from the pieces when evaluated.
+     * That happens when the stack is full, or when moves made before the accumulator was attached or reset to the root are unmade.
+     */
+
+    private static final int STACK_SIZE = 2 * MAX_PLY;
+
+    final NnueNetwork network;
+    private final NnueKernels kernels;
+
+    // [ply][perspective][hidden]
+    private final short[][][] stack = new short[STACK_SIZE][2][HIDDEN_SIZE];
+    private final boolean[] valid = new boolean[STACK_SIZE];
+    private int top = 0;
+    private int overflow = 0;   // Pushes that did not fit on the stack
+
+    public NnueAccumulator(NnueNetwork network, NnueKernels kernels) {
+        this.network = network;
+        this.kernels = kernels;
+    }
+
+    // An accumulator for a copy of the board, every board needs its own
+    public NnueAccumulator copy() {
+        NnueAccumulator copy = new NnueAccumulator(network, kernels);
+        copy.stack[0][WHITE] = stack[top][WHITE].clone();
+        copy.stack[0][BLACK] = stack[top][BLACK].clone();
+        copy.valid[0] = valid[top] && overflow == 0;
+        return copy;
+    }
+
+    // Makes the current entry the bottom of the stack, so game moves made on the board do not use up the search plies.
+    // Moves made before this can no longer be unmade incrementally.
+    public void resetToRoot() {
+        if (top > 0) {
+            System.arraycopy(stack[top][WHITE], 0, stack[0][WHITE], 0, HIDDEN_SIZE);
+            System.arraycopy(stack[top][BLACK], 0, stack[0][BLACK], 0, HIDDEN_SIZE);
+        }
+        valid[0] = valid[top] && overflow == 0;
+        top = 0;
+        overflow = 0;
+    }
+
+    public void push() {
+        if (top == STACK_SIZE - 1) {
+            overflow++;
+            valid[top] = false;
+            return;
+        }
+        System.arraycopy(stack[top][WHITE], 0, stack[top + 1][WHITE], 0, HIDDEN_SIZE);
+        System.arraycopy(stack[top][BLACK], 0, stack[top + 1][BLACK], 0, HIDDEN_SIZE);
+        valid[top + 1] = valid[top];
+        top++;
+    }
+
+    public void pop() {
+        if (overflow > 0) {
+            overflow--;
+            valid[top] = false;
+        } else if (top == 0) {
+            valid[top] = false;
+        } else {
+            top--;
+        }
+    }
+
+    public void addPiece(int color, int piece, int square) {
+        if (!valid[top]) return;
+        kernels.add(stack[top][WHITE], network.featureWeights, row(WHITE, color, piece, square));
+        kernels.add(stack[top][BLACK], network.featureWeights, row(BLACK, color, piece, square));
+    }
+
+    public void removePiece(int color, int piece, int square) {
+        if (!valid[top]) return;
+        kernels.subtract(stack[top][WHITE], network.featureWeights, row(WHITE, color, piece, square));
+        kernels.subtract(stack[top][BLACK], network.featureWeights, row(BLACK, color, piece, square));
+    }
+
+    public void movePiece(int color, int piece, int from, int to) {
+        removePiece(color, piece, from);
+        addPiece(color, piece, to);
+    }
+
+    // Output of the network for the side to move, recomputing the current entry first if it is invalid
+    int forward(Board board) {
+        if (!valid[top]) refresh(board);
+        int us = board.playerToMove;
+        return kernels.dot(stack[top][us], network.outputWeights, 0) +
+                kernels.dot(stack[top][1 - us], network.outputWeights, HIDDEN_SIZE) +
+                network.outputBias;
+    }
+
+    // Recomputes the current entry from all pieces on the board
+    public void refresh(Board board) {
+        for (int perspective = WHITE; perspective <= BLACK; perspective++) {
+            short[] accumulator = stack[top][perspective];
+            System.arraycopy(network.featureBiases, 0, accumulator, 0, HIDDEN_SIZE);
+            for (int color = WHITE; color <= BLACK; color++) {
+                for (int piece = PAWN; piece <= KING; piece++) {
+                    long bb = board.pieces[color][piece];
+                    while (bb != 0) {
+                        kernels.add(accumulator, network.featureWeights, row(perspective, color, piece, lsb(bb)));
+                        bb = clearLsb(bb);
+                    }
+                }
+            }
+        }
+        valid[top] = true;
+    }
+
+    private static int row(int perspective, int color, int piece, int square) {
+        return NnueNetwork.featureIndex(perspective, color, piece, square) * HIDDEN_SIZE;
+    }
+}
@@ -0,0 +1,49 @@
+package com.MichaelFN.chess.v5.nnue;
+
+import com.MichaelFN.chess.interfaces.BitboardEvaluator;
+import com.MichaelFN.chess.v5.board.Board;
+
+import static com.MichaelFN.chess.v5.nnue.NnueNetwork.*;
+
+public class NnueEvaluator implements BitboardEvaluator {
+    /**
+     * Evaluates with an NNUE network. The first evaluation of a board attaches an accumulator to it,
+     * after that the board updates it incrementally in makeMove and unmakeMove.
+     * Each board has its own accumulator, so search threads can share the evaluator.
+     */
+
+    private final NnueNetwork network;
+    private final NnueKernels kernels;
+
+    public NnueEvaluator(NnueNetwork network) {
+        this(network, NnueKernels.create(true));
+    }
+
+    public NnueEvaluator(NnueNetwork network, NnueKernels kernels) {
+        this.network = network;
+        this.kernels = kernels;
+    }
+
+    @Override
+    public int evaluate(Board board) {
+        NnueAccumulator accumulator = board.accumulator;
+        if (accumulator == null || accumulator.network != network) {
+            accumulator = new NnueAccumulator(network, kernels);
+            board.accumulator = accumulator;
+        }
+        return toCentipawns(accumulator.forward(board));
+    }
+
+    // Same result as evaluate(), without using or attaching an accumulator
+    public int evaluateFromScratch(Board board) {
+        return toCentipawns(new NnueAccumulator(network, kernels).forward(board));
+    }
+
+    private static int toCentipawns(int output) {
+        return (int) ((long) output * EVAL_SCALE / (ACTIVATION_MAX * OUTPUT_WEIGHT_SCALE));
+    }
+
+    public String getKernelName() {
+        return kernels.getName();
+    }
+}
@@ -0,0 +1,37 @@
+package com.MichaelFN.chess.v5.nnue;
+
+public interface NnueKernels {
+    /**
+     * The inner loops of the network, in a scalar and a vectorized version that compute exactly the same values.
+     * The vectorized version needs the incubator module: build with -Pvector and run with --add-modules jdk.incubator.vector.
+     */
+
+    String VECTOR_KERNELS_CLASS = "com.MichaelFN.chess.v5.nnue.VectorKernels";
+
+    // accumulator[i] += weights[offset + i]
+    void add(short[] accumulator, short[] weights, int offset);
+
+    // accumulator[i] -= weights[offset + i]
+    void subtract(short[] accumulator, short[] weights, int offset);
+
+    // Sum of clippedReLU(accumulator[i]) * weights[offset + i]
+    int dot(short[] accumulator, short[] weights, int offset);
+
+    String getName();
+
+    static boolean isVectorApiAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    // The vectorized kernels when they were built and the Vector API is available
+    static NnueKernels create(boolean preferVector) {
+        if (preferVector && isVectorApiAvailable()) {
+            try {
+                return (NnueKernels) Class.forName(VECTOR_KERNELS_CLASS).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                // Built without the vector profile
+            }
+        }
+        return new ScalarKernels();
+    }
+}
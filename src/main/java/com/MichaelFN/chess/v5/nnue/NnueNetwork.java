@@ -0,0 +1,119 @@
+package com.MichaelFN.chess.v5.nnue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static com.MichaelFN.chess.v5.Constants.*;
+
+public class NnueNetwork {
+    /**
+     * Weights of a (768 -> 2x256) -> 1 network:
+     *
+     * - Feature transformer: one input per (perspective color, piece type, square), 2 colors x 6 pieces x 64 squares.
+     *   Every perspective has its own accumulator of HIDDEN_SIZE int16 sums, seen from its own side of the board.
+     * - Output layer: both accumulators (side to move first) clipped to [0, ACTIVATION_MAX] and multiplied by
+     *   int8 weights, summed in int32.
+     *
+     * File format, little endian:
+     *
+     * | Field           | Type  | Count                  |
+     * |-----------------|-------|------------------------|
+     * | magic "MFNN"    | int32 | 1                      |
+     * | version         | int32 | 1                      |
+     * | hidden size     | int32 | 1                      |
+     * | feature weights | int16 | FEATURES * HIDDEN_SIZE |
+     * | feature biases  | int16 | HIDDEN_SIZE            |
+     * | output weights  | int8  | 2 * HIDDEN_SIZE        |
+     * | output bias     | int32 | 1                      |
+     *
+     * Read more: <a href="https://www.chessprogramming.org/NNUE">...</a>
+     */
+
+    public static final int FEATURES = 2 * 6 * 64;
+    public static final int HIDDEN_SIZE = 256;
+
+    public static final int ACTIVATION_MAX = 127;   // Clipped ReLU, also the scale of the activations (QA)
+    public static final int OUTPUT_WEIGHT_SCALE = 64;   // QB
+    public static final int EVAL_SCALE = 400;
+
+    private static final int MAGIC = 0x4E4E464D;    // "MFNN"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+
+    // Weight rows are HIDDEN_SIZE long, row i belongs to feature i
+    final short[] featureWeights = new short[FEATURES * HIDDEN_SIZE];
+    final short[] featureBiases = new short[HIDDEN_SIZE];
+
+    // The int8 weights widened to int16, so they are loaded into the same vector lanes as the activations
+    final short[] outputWeights = new short[2 * HIDDEN_SIZE];
+    int outputBias;
+
+    private NnueNetwork() {
+    }
+
+    // Feature of a piece as seen from the perspective's side: own pieces first, the board flipped for black
+    static int featureIndex(int perspective, int color, int piece, int square) {
+        int relativeColor = color == perspective ? 0 : 1;
+        int relativeSquare = perspective == WHITE ? square : square ^ 56;
+        return (relativeColor * 6 + piece - 1) * 64 + relativeSquare;
+    }
+
+    public static NnueNetwork load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(mapped.order(ByteOrder.LITTLE_ENDIAN), path.toString());
+        }
+    }
+
+    private static NnueNetwork read(ByteBuffer buffer, String source) throws IOException {
+        if (buffer.remaining() != fileSize() ||
+                buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != HIDDEN_SIZE) {
+            throw new IOException("Not a network file of this engine: " + source);
+        }
+
+        NnueNetwork network = new NnueNetwork();
+        buffer.asShortBuffer().get(network.featureWeights).get(network.featureBiases);
+        buffer.position(buffer.position() + (network.featureWeights.length + network.featureBiases.length) * Short.BYTES);
+        for (int i = 0; i < network.outputWeights.length; i++) {
+            network.outputWeights[i] = buffer.get();
+        }
+        network.outputBias = buffer.getInt();
+        return network;
+    }
+
+    public void save(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(fileSize()).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(HIDDEN_SIZE);
+        for (short weight : featureWeights) buffer.putShort(weight);
+        for (short bias : featureBiases) buffer.putShort(bias);
+        for (short weight : outputWeights) buffer.put((byte) weight);
+        buffer.putInt(outputBias);
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+    }
+
+    // Untrained network with small weights, for tests and benchmarks
+    public static NnueNetwork random(long seed) {
+        Random random = new Random(seed);
+        NnueNetwork network = new NnueNetwork();
+        for (int i = 0; i < network.featureWeights.length; i++) network.featureWeights[i] = (short) (random.nextInt(65) - 32);
+        for (int i = 0; i < network.featureBiases.length; i++) network.featureBiases[i] = (short) random.nextInt(64);
+        for (int i = 0; i < network.outputWeights.length; i++) network.outputWeights[i] = (short) (random.nextInt(256) - 128);
+        network.outputBias = random.nextInt(2001) - 1000;
+        return network;
+    }
+
+    private static int fileSize() {
+        return HEADER_BYTES + (FEATURES * HIDDEN_SIZE + HIDDEN_SIZE) * Short.BYTES + 2 * HIDDEN_SIZE + Integer.BYTES;
+    }
+}
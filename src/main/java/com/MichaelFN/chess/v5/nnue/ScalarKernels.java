@@ -0,0 +1,35 @@
+package com.MichaelFN.chess.v5.nnue;
+
+import static com.MichaelFN.chess.v5.nnue.NnueNetwork.ACTIVATION_MAX;
+
+public class ScalarKernels implements NnueKernels {
+
+    @Override
+    public void add(short[] accumulator, short[] weights, int offset) {
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    @Override
+    public void subtract(short[] accumulator, short[] weights, int offset) {
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    @Override
+    public int dot(short[] accumulator, short[] weights, int offset) {
+        int sum = 0;
+        for (int i = 0; i < accumulator.length; i++) {
+            int activation = Math.max(0, Math.min(accumulator[i], ACTIVATION_MAX));
+            sum += activation * weights[offset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+}
@@ -1,14 +1,53 @@
 package com.MichaelFN.chess.v5.search;
 
 import com.MichaelFN.chess.common.PestoConstants;
+import com.MichaelFN.chess.interfaces.BitboardEvaluator;
 import com.MichaelFN.chess.v5.board.Board;
 
 import static com.MichaelFN.chess.v5.Constants.*;
 import static com.MichaelFN.chess.v5.board.Bitboard.*;
 
-public class Evaluator {
+public class Evaluator implements BitboardEvaluator {
+    // Cross-check the incremental evaluation against a full recompute on every call (slow)
+    public static final boolean VERIFY_INCREMENTAL = Boolean.getBoolean("chess.verifyEval");
 
+    private final PawnHashTable pawnHashTable;
+
+    public Evaluator() {
+        this(PawnHashTable.DEFAULT_SIZE_MB);
+    }
+
+    public Evaluator(int pawnHashSizeMB) {
+        this.pawnHashTable = new PawnHashTable(pawnHashSizeMB);
+    }
+
+    // Tapered PeSTO evaluation from the side to move's point of view, using the terms the board keeps up to date
+    // and the cached pawn structure
+    @Override
     public int evaluate(Board board) {
+        long pawnScore = pawnHashTable.probe(board);
+        int mgScore = board.mgScore + PawnStructure.getMgScore(pawnScore);
+        int egScore = board.egScore + PawnStructure.getEgScore(pawnScore);
+
+        // Cap phase to 24 (early queen promotion)
+        int phase = Math.min(board.phase, 24);
+
+        // Interpolate score between midgame and endgame
+        int score = (mgScore * phase + egScore * (24 - phase)) / 24;
+        if (board.playerToMove == BLACK) score = -score;
+
+        if (VERIFY_INCREMENTAL) {
+            int expected = evaluateFromScratch(board);
+            if (score != expected) {
+                throw new IllegalStateException("Incremental evaluation " + score + " differs from full evaluation " +
+                        expected + " in position " + board.generateFENString());
+            }
+        }
+        return score;
+    }
+
+    // Sums every piece on the board, independent of the incremental terms and the pawn hash table
+    public int evaluateFromScratch(Board board) {
         int[] mg = new int[2];
         int[] eg = new int[2];
         int phase = 0;
@@ -44,6 +83,11 @@ public class Evaluator {
             }
         }
 
+        // Pawn structure, not cached
+        long pawnScore = PawnStructure.evaluate(board);
+        mg[WHITE] += PawnStructure.getMgScore(pawnScore);
+        eg[WHITE] += PawnStructure.getEgScore(pawnScore);
+
         // Cap phase to 24 (early queen promotion)
         phase = Math.min(phase, 24);
 
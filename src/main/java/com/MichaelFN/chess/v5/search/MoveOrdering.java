@@ -1,7 +1,6 @@
 package com.MichaelFN.chess.v5.search;
 
 import com.MichaelFN.chess.common.PestoConstants;
-import com.MichaelFN.chess.v5.Constants;
 import com.MichaelFN.chess.v5.board.Board;
 import com.MichaelFN.chess.v5.move.Move;
 
@@ -20,9 +19,8 @@ public class MoveOrdering {
         }
     }
 
-    public static void orderMoves(int moveCount, int[] moves, int pvMove, int ttMove, Board board) {
-        int[] scores = new int[moveCount];
-
+    // Scores are written into a buffer owned by the searcher, so ordering never allocates
+    public static void scoreMoves(int moveCount, int[] moves, int[] scores, int pvMove, int ttMove, Board board) {
         for (int i = 0; i < moveCount; i++) {
             int move = moves[i];
 
@@ -36,8 +34,17 @@ public class MoveOrdering {
             else if (Move.isPromotion(move)) scores[i] = PROMOTION_SCORE;
             else scores[i] = getMVVLVA_Score(move, board);
         }
+    }
 
-        quicksort(moves, scores, 0, moveCount - 1);
+    // Moves the best remaining move to index and returns it.
+    // Cut nodes usually stop after a few moves, so sorting the whole list up front is wasted work.
+    public static int pickNext(int moveCount, int[] moves, int[] scores, int index) {
+        int best = index;
+        for (int i = index + 1; i < moveCount; i++) {
+            if (scores[i] > scores[best]) best = i;
+        }
+        if (best != index) swap(moves, scores, index, best);
+        return moves[index];
     }
 
     private static int getMVVLVA_Score(int move, Board board) {
@@ -50,27 +57,6 @@ public class MoveOrdering {
         return MVV_LVA_TABLE[victim][attacker];
     }
 
-    private static void quicksort(int[] moves, int[] scores, int low, int high) {
-        if (low < high) {
-            int p = partition(moves, scores, low, high);
-            quicksort(moves, scores, low, p - 1);
-            quicksort(moves, scores, p + 1, high);
-        }
-    }
-
-    private static int partition(int[] moves, int[] scores, int low, int high) {
-        int pivot = scores[high];
-        int i = low - 1;
-        for (int j = low; j < high; j++) {
-            if (scores[j] > pivot) { // descending order
-                i++;
-                swap(moves, scores, i, j);
-            }
-        }
-        swap(moves, scores, i + 1, high);
-        return i + 1;
-    }
-
     private static void swap(int[] moves, int[] scores, int i, int j) {
         int tmpMove = moves[i];
         moves[i] = moves[j];
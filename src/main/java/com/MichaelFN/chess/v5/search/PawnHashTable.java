@@ -0,0 +1,41 @@
+package com.MichaelFN.chess.v5.search;
+
+import com.MichaelFN.chess.v5.board.Board;
+
+public class PawnHashTable {
+    /**
+     * Caches the pawn structure score by the board's pawn key. The pawns rarely move,
+     * so most probes hit and the pawn structure terms are only computed a few times per search.
+     *
+     * Every entry takes two slots: (key ^ score) followed by the packed score, like the transposition table.
+     * A torn entry fails the key check, so search threads can share the table without locking.
+     * Scores never go stale, so the table is not cleared between games.
+     */
+
+    public static final int DEFAULT_SIZE_MB = 2;
+
+    private static final int ENTRY_SIZE_BYTES = 2 * Long.BYTES;
+
+    private final int entries;
+    private final long[] table;
+
+    public PawnHashTable(int sizeInMB) {
+        // Power of 2 for efficient indexing
+        entries = (int) Long.highestOneBit(Math.max(1, (long) sizeInMB * 1024 * 1024 / ENTRY_SIZE_BYTES));
+        table = new long[2 * entries];
+    }
+
+    // Packed pawn structure score of the board, see PawnStructure
+    public long probe(Board board) {
+        long key = board.pawnKey;
+        int idx = (int) (key & (entries - 1)) * 2;
+
+        long score = table[idx + 1];
+        if ((table[idx] ^ score) == key) return score;
+
+        score = PawnStructure.evaluate(board);
+        table[idx] = key ^ score;
+        table[idx + 1] = score;
+        return score;
+    }
+}
@@ -0,0 +1,138 @@
+package com.MichaelFN.chess.v5.search;
+
+import com.MichaelFN.chess.v5.board.Board;
+
+import static com.MichaelFN.chess.v5.Constants.*;
+import static com.MichaelFN.chess.v5.board.Bitboard.*;
+import static com.MichaelFN.chess.v5.move.MoveTables.PAWN_ATTACK_MASKS;
+
+public class PawnStructure {
+    /**
+     * Pawn structure terms on bitboards, from white's point of view:
+     *
+     * - Doubled: every pawn behind another pawn of the same color on its file
+     * - Isolated: no pawn of the same color on the adjacent files
+     * - Backward: no pawn of the same color on the adjacent files level with or behind it,
+     *   and the square in front is attacked by an enemy pawn
+     * - Passed: no enemy pawn in front of it on its own or the adjacent files, bonus grows with the rank
+     * - Pawn shield: own pawns on the king's file and the adjacent files, one and two ranks in front of the king
+     *
+     * The terms only depend on the pawns and the kings, so the result is cached by the board's pawn key.
+     * Scores are packed into one long, see pack().
+     */
+
+    private static final int DOUBLED_MG = -10;
+    private static final int DOUBLED_EG = -20;
+    private static final int ISOLATED_MG = -10;
+    private static final int ISOLATED_EG = -15;
+    private static final int BACKWARD_MG = -8;
+    private static final int BACKWARD_EG = -10;
+    private static final int[] PASSED_MG = { 0, 5, 10, 15, 25, 40, 60, 0 };    // By rank, relative to the pawn's color
+    private static final int[] PASSED_EG = { 0, 10, 15, 25, 45, 75, 120, 0 };
+    private static final int SHIELD_CLOSE_MG = 12;
+    private static final int SHIELD_FAR_MG = 6;
+
+    private static final long[] ADJACENT_FILES = new long[8];
+
+    // [color][square]: squares in front of a pawn on its own and the adjacent files
+    private static final long[][] PASSED_MASKS = new long[2][64];
+
+    // [color][square]: squares on the adjacent files level with or behind a pawn, where pawns can support it
+    private static final long[][] SUPPORT_MASKS = new long[2][64];
+
+    // [color][square]: the king's file and adjacent files, one and two ranks in front of the king
+    private static final long[][] SHIELD_CLOSE_MASKS = new long[2][64];
+    private static final long[][] SHIELD_FAR_MASKS = new long[2][64];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            ADJACENT_FILES[file] = (file > 0 ? FILE_MASKS[file - 1] : 0) | (file < 7 ? FILE_MASKS[file + 1] : 0);
+        }
+
+        for (int square = 0; square < 64; square++) {
+            int rank = square / 8;
+            int file = square % 8;
+            long files = FILE_MASKS[file] | ADJACENT_FILES[file];
+
+            long whiteFront = 0L;
+            long blackFront = 0L;
+            for (int r = rank + 1; r < 8; r++) whiteFront |= RANK_MASKS[r];
+            for (int r = rank - 1; r >= 0; r--) blackFront |= RANK_MASKS[r];
+
+            PASSED_MASKS[WHITE][square] = files & whiteFront;
+            PASSED_MASKS[BLACK][square] = files & blackFront;
+            SUPPORT_MASKS[WHITE][square] = ADJACENT_FILES[file] & ~whiteFront;
+            SUPPORT_MASKS[BLACK][square] = ADJACENT_FILES[file] & ~blackFront;
+
+            SHIELD_CLOSE_MASKS[WHITE][square] = rank < 7 ? files & RANK_MASKS[rank + 1] : 0;
+            SHIELD_FAR_MASKS[WHITE][square] = rank < 6 ? files & RANK_MASKS[rank + 2] : 0;
+            SHIELD_CLOSE_MASKS[BLACK][square] = rank > 0 ? files & RANK_MASKS[rank - 1] : 0;
+            SHIELD_FAR_MASKS[BLACK][square] = rank > 1 ? files & RANK_MASKS[rank - 2] : 0;
+        }
+    }
+
+    private PawnStructure() {
+    }
+
+    // Packed middle game and end game score of the pawn structure, from white's point of view
+    public static long evaluate(Board board) {
+        int mg = 0;
+        int eg = 0;
+        for (int color = WHITE; color <= BLACK; color++) {
+            int sign = color == WHITE ? 1 : -1;
+            long ownPawns = board.pieces[color][PAWN];
+            long enemyPawns = board.pieces[1 - color][PAWN];
+
+            long pawns = ownPawns;
+            while (pawns != 0) {
+                int square = lsb(pawns);
+                pawns = clearLsb(pawns);
+                int file = square % 8;
+                int relativeRank = color == WHITE ? square / 8 : 7 - square / 8;
+
+                // Another own pawn in front on the same file
+                if ((PASSED_MASKS[color][square] & FILE_MASKS[file] & ownPawns) != 0) {
+                    mg += sign * DOUBLED_MG;
+                    eg += sign * DOUBLED_EG;
+                }
+
+                if ((ADJACENT_FILES[file] & ownPawns) == 0) {
+                    mg += sign * ISOLATED_MG;
+                    eg += sign * ISOLATED_EG;
+                } else if ((SUPPORT_MASKS[color][square] & ownPawns) == 0) {
+                    int stopSquare = color == WHITE ? square + 8 : square - 8;
+                    if ((PAWN_ATTACK_MASKS[color][stopSquare] & enemyPawns) != 0) {
+                        mg += sign * BACKWARD_MG;
+                        eg += sign * BACKWARD_EG;
+                    }
+                }
+
+                if ((PASSED_MASKS[color][square] & enemyPawns) == 0) {
+                    mg += sign * PASSED_MG[relativeRank];
+                    eg += sign * PASSED_EG[relativeRank];
+                }
+            }
+
+            // The shield only matters while there are pieces to attack the king, so it has no end game score
+            long king = board.pieces[color][KING];
+            if (king == 0) continue;
+            int kingSquare = lsb(king);
+            mg += sign * SHIELD_CLOSE_MG * Long.bitCount(SHIELD_CLOSE_MASKS[color][kingSquare] & ownPawns);
+            mg += sign * SHIELD_FAR_MG * Long.bitCount(SHIELD_FAR_MASKS[color][kingSquare] & ownPawns);
+        }
+        return pack(mg, eg);
+    }
+
+    // Middle game score in the high 32 bits, end game score in the low 32 bits
+    public static long pack(int mg, int eg) {
+        return ((long) mg << 32) | (eg & 0xFFFFFFFFL);
+    }
+
+    public static int getMgScore(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    public static int getEgScore(long packed) {
+        return (int) packed;
+    }
+}
@@ -20,19 +20,29 @@ public class Searcher {
     private int nodesSearched;
     private int branchesPruned;
     private boolean timeIsUp;
+    private boolean searchOutput = true;
 
     // Save principal variation for every depth
     private static final int MAX_DEPTH = 64;
     private final int[][] pvTable = new int[MAX_DEPTH][MAX_DEPTH];
     private final int[] pvLength = new int[MAX_DEPTH];
 
+    // Move ordering scores for every ply
+    private final int[][] moveScores = new int[Constants.MAX_PLY][Constants.MAX_MOVES_IN_POSITION];
+
     private static final int CHECKMATE_SCORE = 99999999;
     private static final int DRAW_SCORE = 0;
 
+    public static final int DEFAULT_HASH_SIZE_MB = 256;
+
     public Searcher(Evaluator evaluator) {
+        this(evaluator, DEFAULT_HASH_SIZE_MB);
+    }
+
+    public Searcher(Evaluator evaluator, int hashSizeMB) {
         this.moveGenerator = new MoveGenerator();
         this.evaluator = evaluator;
-        this.transpositionTable = new TranspositionTable(256);
+        this.transpositionTable = new TranspositionTable(hashSizeMB);
     }
 
     public int negamax(Board board, int maxDepth, long timeMS) {
@@ -40,6 +50,7 @@ public class Searcher {
         branchesPruned = 0;
         timeIsUp = false;
         clearPrincipalVariation();
+        transpositionTable.newSearch();
 
         int bestMove = 0;
         int bestScore = 0;
@@ -60,10 +71,10 @@ public class Searcher {
             if (timeIsUp) break;    // Don't overwrite best score or move if the search was interrupted
 
             bestScore = score;
-            TTEntry ttEntry = transpositionTable.get(board.hashKey);
-            bestMove = ttEntry == null ? 0 : ttEntry.bestMove;
+            long ttEntry = transpositionTable.get(board.hashKey);
+            bestMove = TTEntry.getBestMove(ttEntry);
 
-            if (DEBUG_SEARCH) {
+            if (DEBUG_SEARCH && searchOutput) {
                 long iterEndTime = System.currentTimeMillis();
                 long timeSpent = Math.max(iterEndTime - iterStartTime, 1);
                 long nodesThisDepth = nodesSearched - nodesBefore;
@@ -80,7 +91,7 @@ public class Searcher {
             }
         }
 
-        if (DEBUG_SEARCH) {
+        if (DEBUG_SEARCH && searchOutput) {
             System.out.println("Nodes searched: " + nodesSearched);
             System.out.println("Branches pruned: " + branchesPruned);
             System.out.println("Time used: " + (System.currentTimeMillis() - startTime));
@@ -105,23 +116,25 @@ public class Searcher {
 
         // Transposition table lookup
         long hashKey = board.hashKey;
-        TTEntry ttEntry = transpositionTable.get(hashKey);
+        long ttEntry = transpositionTable.get(hashKey);
         int ttMove = 0;
 
-        if (ttEntry != null && ttEntry.depth >= depth) {
-            ttMove = ttEntry.bestMove;
-
-            if (ttEntry.flag == TTEntry.EXACT) {
-                return ttEntry.score;
-            } else if (ttEntry.flag == TTEntry.LOWERBOUND && ttEntry.score > alpha) {
-                alpha = ttEntry.score;
-            } else if (ttEntry.flag == TTEntry.UPPERBOUND && ttEntry.score < beta) {
-                beta = ttEntry.score;
+        if (ttEntry != TranspositionTable.NO_ENTRY && TTEntry.getDepth(ttEntry) >= depth) {
+            ttMove = TTEntry.getBestMove(ttEntry);
+            int ttScore = TTEntry.getScore(ttEntry);
+            int ttFlag = TTEntry.getFlag(ttEntry);
+
+            if (ttFlag == TTEntry.EXACT) {
+                return ttScore;
+            } else if (ttFlag == TTEntry.LOWERBOUND && ttScore > alpha) {
+                alpha = ttScore;
+            } else if (ttFlag == TTEntry.UPPERBOUND && ttScore < beta) {
+                beta = ttScore;
             }
 
             if (alpha >= beta) {
                 branchesPruned++;
-                return ttEntry.score;
+                return ttScore;
             }
         }
 
@@ -146,7 +159,8 @@ public class Searcher {
 
         int[] legalMoves = moveGenerator.legalMoves[ply];
         int pvMove = pvLength[ply] > 0 ? pvTable[ply][0] : 0;
-        MoveOrdering.orderMoves(moveCount, legalMoves, pvMove, ttMove, board);
+        int[] scores = moveScores[ply];
+        MoveOrdering.scoreMoves(moveCount, legalMoves, scores, pvMove, ttMove, board);
 
         int maxScore = Integer.MIN_VALUE;
         int bestMoveAtThisNode = 0;
@@ -158,7 +172,7 @@ public class Searcher {
                 return 0;
             }
 
-            int move = legalMoves[i];
+            int move = MoveOrdering.pickNext(moveCount, legalMoves, scores, i);
 
             board.makeMove(move);
             int score = -negamax(board, depth - 1, -beta, -alpha, ply + 1, endTime);
@@ -212,7 +226,8 @@ public class Searcher {
         moveGenerator.generateLegalCaptures(board, ply);
         int captureCount = moveGenerator.legalMoveCounts[ply];
         int[] captures = moveGenerator.legalMoves[ply];
-        MoveOrdering.orderMoves(captureCount, captures, 0, 0, board);  // Not sure if this matters much for performance
+        int[] scores = moveScores[ply];
+        MoveOrdering.scoreMoves(captureCount, captures, scores, 0, 0, board);  // Not sure if this matters much for performance
 
         for (int i = 0; i < captureCount; i++) {
             if (System.currentTimeMillis() > endTime) {
@@ -220,7 +235,7 @@ public class Searcher {
                 return 0;
             }
 
-            int move = captures[i];
+            int move = MoveOrdering.pickNext(captureCount, captures, scores, i);
 
             board.makeMove(move);
             int score = -quiescence(board, -beta, -alpha, ply + 1, endTime);
@@ -267,12 +282,11 @@ public class Searcher {
         // Walk through transposition table and append best moves
         int counter = 0;
         for (int i = 0; i < depth; i++) {
-            TTEntry ttEntry = transpositionTable.get(board.hashKey);
-            if (ttEntry == null || ttEntry.bestMove == 0) {
+            int move = TTEntry.getBestMove(transpositionTable.get(board.hashKey));
+            if (move == 0) {
                 break;
             }
 
-            int move = ttEntry.bestMove;
             PV.add(move);
             board.makeMove(move);
             counter++;
@@ -297,6 +311,14 @@ public class Searcher {
         transpositionTable.clear();
     }
 
+    public void resizeTranspositionTable(int sizeInMB) {
+        transpositionTable.resize(sizeInMB);
+    }
+
+    public void setSearchOutput(boolean enabled) {
+        searchOutput = enabled;
+    }
+
     public void stop() {
         timeIsUp = true;
     }
@@ -1,29 +1,59 @@
 package com.MichaelFN.chess.v5.search;
 
 public class TTEntry {
-    public long key;
-    public int depth;
-    public int score;
-    public int flag;
-    public int bestMove;
+    /**
+     * Encodes a transposition table entry into a single long using bit fields:
+     *
+     * | Bits  | Field     | Description                           |
+     * |-------|-----------|---------------------------------------|
+     * | 0–31  | SCORE     | Score of the position (signed)        |
+     * | 32–55 | BEST MOVE | Best move found (see Move encoding)   |
+     * | 56–61 | DEPTH     | Searched depth, capped at 63          |
+     * | 62–63 | FLAG      | Exact score, lower bound, upper bound |
+     *
+     * The table stores the entry next to (key ^ entry), so no objects are allocated for entries.
+     */
 
     public static final int EXACT = 0;
     public static final int LOWERBOUND = 1;
     public static final int UPPERBOUND = 2;
 
-    public TTEntry(long key, int depth, int score, int flag, int bestMove) {
-        this.key = key;
-        this.depth = depth;
-        this.score = score;
-        this.flag = flag;
-        this.bestMove = bestMove;
+    // Bit shifts
+    private static final int MOVE_SHIFT = 32;
+    private static final int DEPTH_SHIFT = 56;
+    private static final int FLAG_SHIFT = 62;
+
+    // Masks
+    private static final long SCORE_MASK = 0xFFFFFFFFL;
+    private static final long MOVE_MASK = 0xFFFFFFL;    // 24 bits
+    private static final long DEPTH_MASK = 0b111111;    // 6 bits
+    private static final long FLAG_MASK = 0b11;         // 2 bits
+
+    public static final int MAX_DEPTH = (int) DEPTH_MASK;
+
+    // Encoding
+    public static long pack(int depth, int score, int flag, int bestMove) {
+        long cappedDepth = Math.max(0, Math.min(depth, MAX_DEPTH));
+        return (score & SCORE_MASK) |
+                ((bestMove & MOVE_MASK) << MOVE_SHIFT) |
+                (cappedDepth << DEPTH_SHIFT) |
+                ((flag & FLAG_MASK) << FLAG_SHIFT);
+    }
+
+    // Extractors
+    public static int getScore(long entry) {
+        return (int) entry;
+    }
+
+    public static int getBestMove(long entry) {
+        return (int) ((entry >>> MOVE_SHIFT) & MOVE_MASK);
+    }
+
+    public static int getDepth(long entry) {
+        return (int) ((entry >>> DEPTH_SHIFT) & DEPTH_MASK);
     }
 
-    public void update(long key, int depth, int score, int flag, int bestMove) {
-        this.key = key;
-        this.depth = depth;
-        this.score = score;
-        this.flag = flag;
-        this.bestMove = bestMove;
+    public static int getFlag(long entry) {
+        return (int) ((entry >>> FLAG_SHIFT) & FLAG_MASK);
     }
 }
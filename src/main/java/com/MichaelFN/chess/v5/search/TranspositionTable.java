@@ -3,20 +3,95 @@ package com.MichaelFN.chess.v5.search;
 import java.util.Arrays;
 
 public class TranspositionTable {
+    /**
+     * Every entry takes two slots of a flat long array: (key ^ data) followed by data,
+     * where data is a packed TTEntry. A probe only trusts the data if XOR-ing the two slots gives back the key.
+     * A torn entry (key slot from one write, data slot from another) fails that check and is treated as a miss,
+     * so search threads can share the table without any locking.
+     *
+     * Entries are grouped in buckets of 4 (64 bytes, the size of a cache line), so a probe usually touches one line.
+     * Java does not align arrays to cache lines, so a bucket can still span two.
+     * The lowest bits of the key slot hold the generation of the search that wrote the entry instead of key bits.
+     * Those key bits are already given by the bucket index, so they are not needed to verify the key.
+     * Slots 0-2 keep the most valuable entries by depth and age, slot 3 is always replaced.
+     *
+     * Read more: <a href="https://www.chessprogramming.org/Shared_Hash_Table#Lock-less">...</a>
+     */
 
-    private static final int APPROX_ENTRY_SIZE_BYTES = 30;
+    public static final long NO_ENTRY = 0L;
 
-    private final int size;
-    private final TTEntry[] table;
-    private int collisions = 0;
+    private static final int ENTRY_SIZE_BYTES = 2 * Long.BYTES;
+    private static final int BUCKET_SIZE = 4;
+    private static final int SLOTS_PER_BUCKET = 2 * BUCKET_SIZE;
+    private static final int ALWAYS_REPLACE_ENTRY = BUCKET_SIZE - 1;
+    private static final long MAX_BUCKETS = 1L << 27;    // 2^30 slots, the largest power of 2 a Java array can hold
+
+    // 8 GB, sizes are rounded down to a power of 2
+    public static final int MAX_SIZE_MB = (int) (MAX_BUCKETS * BUCKET_SIZE * ENTRY_SIZE_BYTES / (1024 * 1024));
+
+    private static final int GENERATION_BITS = 8;
+    private static final long GENERATION_MASK = (1L << GENERATION_BITS) - 1;
+    private static final long KEY_CHECK_MASK = ~GENERATION_MASK;
+
+    // An entry that is one search old is worth as much as an entry AGE_WEIGHT plies shallower
+    private static final int AGE_WEIGHT = 4;
+
+    // Number of entries sampled for the UCI hashfull value (per mille)
+    private static final int HASHFULL_SAMPLE = 1000;
+
+    private int buckets;
+    private long[] table;
+    private int generation = 0;
 
     public TranspositionTable(int sizeInMB) {
+        resize(sizeInMB);
+    }
+
+    // Replaces the table with an empty one. Must not be called while a search is using the table.
+    public void resize(int sizeInMB) {
+        TranspositionTableEvent event = new TranspositionTableEvent();
+        event.begin();
+
         // Allocate sizeInMB megabytes
-        int entries = (sizeInMB * 1024 * 1024) / APPROX_ENTRY_SIZE_BYTES;
+        long entries = ((long) sizeInMB * 1024 * 1024) / ENTRY_SIZE_BYTES;
+
+        // Make number of buckets a power of 2 for efficient indexing
+        int newBuckets = (int) Long.highestOneBit(Math.max(HASHFULL_SAMPLE, Math.min(entries / BUCKET_SIZE, MAX_BUCKETS)));
+        if (table != null && newBuckets == buckets) {
+            Arrays.fill(table, 0L);
+        } else {
+            // Let the old table be collected first, both might not fit in memory at once
+            table = null;
+            buckets = newBuckets;
+            table = new long[buckets * SLOTS_PER_BUCKET];
+        }
+        generation = 0;
+
+        commit(event, "resize");
+    }
+
+    private void commit(TranspositionTableEvent event, String operation) {
+        if (!event.shouldCommit()) return;
+        event.operation = operation;
+        event.sizeBytes = (long) table.length * Long.BYTES;
+        event.commit();
+    }
+
+    private int bucketIndex(long key) {
+        return (int) (key & (buckets - 1)) * SLOTS_PER_BUCKET;
+    }
 
-        // MAke size a power of 2 for efficient indexing
-        size = Integer.highestOneBit(entries);
-        table = new TTEntry[size];
+    private static boolean matches(long keySlot, long data, long key) {
+        return ((keySlot ^ data) & KEY_CHECK_MASK) == (key & KEY_CHECK_MASK);
+    }
+
+    private int age(long keySlot) {
+        return (int) ((generation - keySlot) & GENERATION_MASK);
+    }
+
+    // Call once at the start of every search, so entries from earlier searches can be recognized as old
+    public void newSearch() {
+        generation = (int) ((generation + 1) & GENERATION_MASK);
     }
 
     public void put(long key, int depth, int score, int flag) {
@@ -24,46 +99,87 @@ public class TranspositionTable {
     }
 
     public void put(long key, int depth, int score, int flag, int bestMove) {
-        int idx = (int) (key & (size - 1));
-        TTEntry entry = table[idx];
+        int bucket = bucketIndex(key);
+        int replace = -1;
+        int replaceValue = Integer.MAX_VALUE;
 
-        if (entry != null) {
-            if (entry.key != key) collisions++;
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            int idx = bucket + 2 * i;
+            long storedData = table[idx + 1];
 
-            // Only replace if new depth is greater or equal
-            if (entry.key == key || entry.depth <= depth) {
-                entry.update(key, depth, score, flag, bestMove);
+            // Same position: always overwrite, but keep the old best move if the new search found none
+            if (storedData != NO_ENTRY && matches(table[idx], storedData, key)) {
+                if (bestMove == 0) bestMove = TTEntry.getBestMove(storedData);
+                write(idx, key, depth, score, flag, bestMove);
+                return;
+            }
+
+            if (i == ALWAYS_REPLACE_ENTRY) break;
+
+            // Least valuable of the depth-preferred entries: empty, then shallow and old
+            int value = storedData == NO_ENTRY ? Integer.MIN_VALUE : TTEntry.getDepth(storedData) - AGE_WEIGHT * age(table[idx]);
+            if (value < replaceValue) {
+                replaceValue = value;
+                replace = idx;
             }
-        } else {
-            table[idx] = new TTEntry(key, depth, score, flag, bestMove);
         }
+
+        // Keep the valuable entry and use the always-replace slot instead
+        if (replaceValue > depth) replace = bucket + 2 * ALWAYS_REPLACE_ENTRY;
+
+        write(replace, key, depth, score, flag, bestMove);
+    }
+
+    private void write(int idx, long key, int depth, int score, int flag, int bestMove) {
+        long data = TTEntry.pack(depth, score, flag, bestMove);
+        table[idx] = ((key ^ data) & KEY_CHECK_MASK) | generation;
+        table[idx + 1] = data;
     }
 
     public int getScore(long key) {
-        TTEntry entry = get(key);
-        return entry != null ? entry.score : Integer.MIN_VALUE;
+        long entry = get(key);
+        return entry != NO_ENTRY ? TTEntry.getScore(entry) : Integer.MIN_VALUE;
     }
 
-    public TTEntry get(long key) {
-        int idx = (int) (key & (size - 1));
-        TTEntry entry = table[idx];
-        if (entry != null && entry.key == key) {
-            return entry;
+    // Returns the packed entry for the key, or NO_ENTRY
+    public long get(long key) {
+        int bucket = bucketIndex(key);
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            int idx = bucket + 2 * i;
+            long keySlot = table[idx];
+            long data = table[idx + 1];
+            if (data != NO_ENTRY && matches(keySlot, data, key)) {
+
+                // Entry is still useful, so it should not age out
+                if (age(keySlot) != 0) table[idx] = (keySlot & KEY_CHECK_MASK) | generation;
+                return data;
+            }
         }
-        return null;
+        return NO_ENTRY;
     }
 
-    public int getCollisions() {
-        return collisions;
+    // Approximate occupancy by entries of the current search, in per mille as reported by UCI "hashfull"
+    public int hashfull() {
+        int used = 0;
+        for (int i = 0; i < HASHFULL_SAMPLE; i++) {
+            int idx = 2 * i;
+            if (table[idx + 1] != NO_ENTRY && age(table[idx]) == 0) used++;
+        }
+        return used * 1000 / HASHFULL_SAMPLE;
     }
 
     public void clear() {
-        Arrays.fill(table, null);
-        collisions = 0;
+        TranspositionTableEvent event = new TranspositionTableEvent();
+        event.begin();
+
+        Arrays.fill(table, 0L);
+        generation = 0;
+
+        commit(event, "clear");
     }
 
     @Override
     public String toString() {
-        return "TranspositionTable: size=" + size + ", collisions=" + collisions + "";
+        return "TranspositionTable: entries=" + (long) buckets * BUCKET_SIZE + ", hashfull=" + hashfull();
     }
 }
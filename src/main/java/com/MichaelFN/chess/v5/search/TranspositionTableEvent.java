@@ -0,0 +1,22 @@
+package com.MichaelFN.chess.v5.search;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A resize or clear of a transposition table, recorded by Java Flight Recorder.
+ * Both touch the whole table, the event's duration shows how long that took.
+ */
+@Name("com.MichaelFN.chess.TranspositionTable")
+@Label("Transposition Table Resize/Clear")
+@Category({"Chess", "Search"})
+class TranspositionTableEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Size")
+    @DataAmount
+    long sizeBytes;
+}
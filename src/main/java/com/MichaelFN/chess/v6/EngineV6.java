@@ -1,17 +1,40 @@
 package com.MichaelFN.chess.v6;
 
+import com.MichaelFN.chess.common.SearchLimits;
 import com.MichaelFN.chess.common.UciConnector;
 import com.MichaelFN.chess.v5.Constants;
 import com.MichaelFN.chess.v5.EngineV5;
+import com.MichaelFN.chess.v5.Utils;
+import com.MichaelFN.chess.v5.move.MoveGenerator;
+import com.MichaelFN.chess.v5.nnue.NnueEvaluator;
+import com.MichaelFN.chess.v5.nnue.NnueNetwork;
 import com.MichaelFN.chess.v5.search.Evaluator;
+import com.MichaelFN.chess.v5.search.TranspositionTable;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
 
 import static com.MichaelFN.chess.common.Constants.DEBUG_ENGINES;
 
 public class EngineV6 extends EngineV5 {
+    // The V5 searcher is never used, so it only gets the smallest table
+    private static final int UNUSED_V5_HASH_SIZE_MB = 1;
+    private static final String NO_EVAL_FILE = "<empty>";
+
     private final Evaluator evaluator = new Evaluator();
-    private final Searcher searcher = new Searcher(evaluator);
+    private final Searcher searcher;
+    private final MoveGenerator moveGenerator = new MoveGenerator();
+
+    public EngineV6() {
+        this(Searcher.DEFAULT_HASH_SIZE_MB);
+    }
+
+    public EngineV6(int hashSizeMB) {
+        super(UNUSED_V5_HASH_SIZE_MB);
+        searcher = new Searcher(evaluator, hashSizeMB);
+    }
 
     @Override
     public void startSearch(int depth, long timeLimitMillis) {
@@ -20,16 +43,98 @@ public class EngineV6 extends EngineV5 {
         if (DEBUG_ENGINES) System.out.println(getEngineName() + ": Done searching.");
     }
 
+    @Override
+    public void startSearch(SearchLimits limits) {
+        if (DEBUG_ENGINES) System.out.println(getEngineName() + ": Search started...");
+        bestMove = searcher.search(board, limits);
+        if (DEBUG_ENGINES) System.out.println(getEngineName() + ": Done searching.");
+    }
+
     @Override
     public void stopSearch() {
         searcher.stop();
     }
 
+    @Override
+    public void ponderHit() {
+        searcher.ponderHit();
+    }
+
+    @Override
+    public String getPonderMove() {
+        int ponderMove = searcher.getPonderMove();
+        if (bestMove == 0 || ponderMove == 0) return null;
+
+        // The end of a mating line may not be a real move
+        board.makeMove(bestMove);
+        boolean isLegal = moveGenerator.isPseudoLegal(board, ponderMove) && moveGenerator.isLegal(board, ponderMove);
+        board.unmakeMove();
+        return isLegal ? Utils.moveToUci(ponderMove) : null;
+    }
+
     @Override
     public void clear() {
         searcher.clear();
     }
 
+    @Override
+    public List<String> getOptions() {
+        return List.of(
+                "option name Hash type spin default " + Searcher.DEFAULT_HASH_SIZE_MB + " min 1 max " + TranspositionTable.MAX_SIZE_MB,
+                "option name Clear Hash type button",
+                "option name Threads type spin default 1 min 1 max " + Searcher.MAX_THREADS,
+                "option name Ponder type check default false",
+                "option name MultiPV type spin default 1 min 1 max " + Searcher.MAX_MULTI_PV,
+                "option name SearchStats type combo default Off var Off var Info var JSON",
+                "option name EvalCache type spin default " + EvalCache.DEFAULT_SIZE_MB + " min 1 max " + EvalCache.MAX_SIZE_MB,
+                "option name EvalFile type string default " + NO_EVAL_FILE
+        );
+    }
+
+    @Override
+    public void setOption(String name, String value) {
+        if (name.equalsIgnoreCase("Hash")) {
+            searcher.resizeTranspositionTable(Integer.parseInt(value));
+        } else if (name.equalsIgnoreCase("Clear Hash")) {
+            searcher.clearTranspositionTable();
+        } else if (name.equalsIgnoreCase("Threads")) {
+            searcher.setThreads(Integer.parseInt(value));
+        } else if (name.equalsIgnoreCase("MultiPV")) {
+            searcher.setMultiPV(Integer.parseInt(value));
+        } else if (name.equalsIgnoreCase("EvalCache")) {
+            searcher.resizeEvalCache(Integer.parseInt(value));
+        } else if (name.equalsIgnoreCase("EvalFile")) {
+            setEvalFile(value);
+        } else if (name.equalsIgnoreCase("SearchStats")) {
+            // No value sets the default, like EvalFile
+            searcher.setStatsOutput(value == null ? SearchStats.Output.OFF : SearchStats.Output.valueOf(value.toUpperCase(Locale.ROOT)));
+        }
+    }
+
+    @Override
+    public void setSearchOutput(boolean enabled) {
+        searcher.setSearchOutput(enabled);
+    }
+
+    // NNUE network to evaluate with, or the PeSTO evaluator when no file is given.
+    // The accumulator of the old network is detached, a new network attaches its own on the first evaluation.
+    private void setEvalFile(String path) {
+        if (path == null || path.isBlank() || path.equals(NO_EVAL_FILE)) {
+            searcher.setEvaluator(evaluator);
+            board.accumulator = null;
+            return;
+        }
+
+        try {
+            NnueEvaluator nnueEvaluator = new NnueEvaluator(NnueNetwork.load(Path.of(path)));
+            searcher.setEvaluator(nnueEvaluator);
+            board.accumulator = null;
+            System.out.println("info string Loaded " + path + " (" + nnueEvaluator.getKernelName() + ")");
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not load network " + path, e);
+        }
+    }
+
     @Override
     public String getEngineName() {
         return "Faster Bitboard Engine (V6)";
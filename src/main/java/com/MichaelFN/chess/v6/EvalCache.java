@@ -0,0 +1,58 @@
+package com.MichaelFN.chess.v6;
+
+import java.util.Arrays;
+
+public class EvalCache {
+    /**
+     * Direct-mapped cache of static evaluations by the board's hash key.
+     *
+     * An entry is a single long: the upper 32 bits of the key and the 32 bit score. The lower key bits
+     * are given by the index, the upper bits verify the entry. A long is written in one piece,
+     * so search threads share the cache without locking and never read a torn entry.
+     * Only 32 key bits are checked, which makes reading the score of another position unlikely, not impossible.
+     */
+
+    public static final int NO_SCORE = Integer.MIN_VALUE;
+    public static final int DEFAULT_SIZE_MB = 8;
+    public static final int MAX_SIZE_MB = 1024;
+
+    private static final long KEY_MASK = 0xFFFFFFFF00000000L;
+    private static final long SCORE_MASK = 0x00000000FFFFFFFFL;
+
+    private int entries;
+    private long[] table;
+
+    public EvalCache(int sizeInMB) {
+        resize(sizeInMB);
+    }
+
+    // Replaces the cache with an empty one. Must not be called while a search is using the cache.
+    public void resize(int sizeInMB) {
+        long requested = (long) Math.max(1, Math.min(sizeInMB, MAX_SIZE_MB)) * 1024 * 1024 / Long.BYTES;
+
+        // Power of 2 for efficient indexing
+        int newEntries = (int) Long.highestOneBit(requested);
+        if (table != null && newEntries == entries) {
+            clear();
+            return;
+        }
+        table = null;
+        entries = newEntries;
+        table = new long[entries];
+    }
+
+    // Score stored for the key, or NO_SCORE
+    public int probe(long key) {
+        long entry = table[(int) key & (entries - 1)];
+        if (entry != 0 && (entry & KEY_MASK) == (key & KEY_MASK)) return (int) entry;
+        return NO_SCORE;
+    }
+
+    public void store(long key, int score) {
+        table[(int) key & (entries - 1)] = (key & KEY_MASK) | (score & SCORE_MASK);
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+    }
+}
@@ -0,0 +1,214 @@
+package com.MichaelFN.chess.v6;
+
+import com.MichaelFN.chess.v5.board.Board;
+import com.MichaelFN.chess.v5.move.Move;
+import com.MichaelFN.chess.v5.move.MoveGenerator;
+
+import static com.MichaelFN.chess.v5.Constants.*;
+
+public class MovePicker {
+    /**
+     * Hands out the moves of a position one at a time, generating them in stages:
+     *
+     * 1. Hash moves: the PV move and the transposition table move, checked for legality without generating anything
+     * 2. Good captures: captures and capture promotions ordered by MVV-LVA, that do not lose material by SEE
+     * 3. Killer moves: quiet moves that caused a cutoff at the same ply, checked like the hash moves
+     * 4. Quiet moves: the rest of the quiet moves ordered by history (quiet promotions first)
+     * 5. Bad captures: captures that lose material by SEE, deferred until after the quiet moves
+     *
+     * Most nodes cut off on the first few moves, so the later stages are never generated there.
+     * Moves handed out by an earlier stage are skipped in the later ones.
+     *
+     * Read more: <a href="https://www.chessprogramming.org/Move_Generation#Staged_Move_Generation">...</a>
+     */
+
+    private static final int STAGE_PV_MOVE = 0;
+    private static final int STAGE_TT_MOVE = 1;
+    private static final int STAGE_GENERATE_CAPTURES = 2;
+    private static final int STAGE_GOOD_CAPTURES = 3;
+    private static final int STAGE_FIRST_KILLER = 4;
+    private static final int STAGE_SECOND_KILLER = 5;
+    private static final int STAGE_GENERATE_QUIETS = 6;
+    private static final int STAGE_QUIETS = 7;
+    private static final int STAGE_BAD_CAPTURES = 8;
+    private static final int STAGE_DONE = 9;
+
+    private static final int PROMOTION_SCORE = 1000000;
+
+    private final MoveGenerator moveGenerator;
+    private final StaticExchange staticExchange = new StaticExchange();
+    private final int ply;
+
+    private final int[] moves = new int[MAX_MOVES_IN_POSITION];
+    private final int[] scores = new int[MAX_MOVES_IN_POSITION];
+    private final int[] badCaptures = new int[MAX_MOVES_IN_POSITION];
+    private int moveCount;
+    private int moveIndex;
+    private int badCaptureCount;
+    private int badCaptureIndex;
+
+    private Board board;
+    private int stage;
+    private boolean capturesOnly;
+    private int pvMove;
+    private int ttMove;
+    private int firstKiller;
+    private int secondKiller;
+    private int[][] historyHeuristic;
+
+    public MovePicker(MoveGenerator moveGenerator, int ply) {
+        this.moveGenerator = moveGenerator;
+        this.ply = ply;
+    }
+
+    public void init(Board board, int pvMove, int ttMove, int[] killers, int[][] historyHeuristic) {
+        this.board = board;
+        this.capturesOnly = false;
+        this.pvMove = pvMove;
+        this.ttMove = ttMove != pvMove ? ttMove : 0;
+        this.firstKiller = killers[0];
+        this.secondKiller = killers[1];
+        this.historyHeuristic = historyHeuristic;
+        this.stage = STAGE_PV_MOVE;
+        this.badCaptureCount = 0;
+        this.badCaptureIndex = 0;
+    }
+
+    // Quiescence search: only the good captures, losing captures are pruned
+    public void initCaptures(Board board) {
+        this.board = board;
+        this.capturesOnly = true;
+        this.pvMove = 0;
+        this.ttMove = 0;
+        this.firstKiller = 0;
+        this.secondKiller = 0;
+        this.historyHeuristic = null;
+        this.stage = STAGE_GENERATE_CAPTURES;
+        this.badCaptureCount = 0;
+        this.badCaptureIndex = 0;
+    }
+
+    // Returns the next legal move, or 0 when there are none left
+    public int next() {
+        switch (stage) {
+            case STAGE_PV_MOVE:
+                stage = STAGE_TT_MOVE;
+                if (isValid(pvMove)) return pvMove;
+                pvMove = 0;
+
+            case STAGE_TT_MOVE:
+                stage = STAGE_GENERATE_CAPTURES;
+                if (isValid(ttMove)) return ttMove;
+                ttMove = 0;
+
+            case STAGE_GENERATE_CAPTURES:
+                moveGenerator.generateLegalCaptures(board, ply);
+                loadMoves();
+                scoreCaptures();
+                stage = STAGE_GOOD_CAPTURES;
+
+            case STAGE_GOOD_CAPTURES:
+                while (moveIndex < moveCount) {
+                    int move = pickBest();
+                    if (isHashMove(move)) continue;
+                    if (!isGoodCapture(move)) {
+                        badCaptures[badCaptureCount++] = move;
+                        continue;
+                    }
+                    return move;
+                }
+                stage = capturesOnly ? STAGE_DONE : STAGE_FIRST_KILLER;
+                if (capturesOnly) return 0;
+
+            case STAGE_FIRST_KILLER:
+                stage = STAGE_SECOND_KILLER;
+                if (isValidKiller(firstKiller)) return firstKiller;
+                firstKiller = 0;
+
+            case STAGE_SECOND_KILLER:
+                stage = STAGE_GENERATE_QUIETS;
+                if (secondKiller != firstKiller && isValidKiller(secondKiller)) return secondKiller;
+                secondKiller = 0;
+
+            case STAGE_GENERATE_QUIETS:
+                moveGenerator.generateLegalQuiets(board, ply);
+                loadMoves();
+                scoreQuiets();
+                stage = STAGE_QUIETS;
+
+            case STAGE_QUIETS:
+                while (moveIndex < moveCount) {
+                    int move = pickBest();
+                    if (isHashMove(move) || move == firstKiller || move == secondKiller) continue;
+                    return move;
+                }
+                stage = STAGE_BAD_CAPTURES;
+
+            case STAGE_BAD_CAPTURES:
+                if (badCaptureIndex < badCaptureCount) return badCaptures[badCaptureIndex++];
+                stage = STAGE_DONE;
+
+            default:
+                return 0;
+        }
+    }
+
+    private boolean isValid(int move) {
+        return move != 0 && moveGenerator.isPseudoLegal(board, move) && moveGenerator.isLegal(board, move);
+    }
+
+    private boolean isValidKiller(int move) {
+        return !Move.isCapture(move) && !isHashMove(move) && isValid(move);
+    }
+
+    private boolean isHashMove(int move) {
+        return move == pvMove || move == ttMove;
+    }
+
+    private void loadMoves() {
+        moveCount = moveGenerator.legalMoveCounts[ply];
+        System.arraycopy(moveGenerator.legalMoves[ply], 0, moves, 0, moveCount);
+        moveIndex = 0;
+    }
+
+    private void scoreCaptures() {
+        for (int i = 0; i < moveCount; i++) {
+            scores[i] = MoveOrdering.getMVVLVA_Score(moves[i], board);
+        }
+    }
+
+    private void scoreQuiets() {
+        for (int i = 0; i < moveCount; i++) {
+            int move = moves[i];
+            if (Move.isPromotion(move)) {
+                scores[i] = PROMOTION_SCORE + Move.getPromotionPiece(move);
+            } else {
+                scores[i] = historyHeuristic[board.pieceAtSquare[Move.getFrom(move)]][Move.getTo(move)];
+            }
+        }
+    }
+
+    // Promotions, en passant, and captures that do not lose material. Taking a piece at least as valuable
+    // as the attacker can not lose material, and legal king captures can not be recaptured, so SEE is skipped there.
+    private boolean isGoodCapture(int move) {
+        if (Move.isPromotion(move) || Move.isEnPassant(move)) return true;
+        int attacker = board.pieceAtSquare[Move.getFrom(move)];
+        int victim = board.pieceAtSquare[Move.getTo(move)];
+        if (attacker == KING || MoveOrdering.pieceValue(victim) >= MoveOrdering.pieceValue(attacker)) return true;
+        return staticExchange.isNonLosing(board, move);
+    }
+
+    // Selection sort step: only the moves that are actually searched get sorted
+    private int pickBest() {
+        int best = moveIndex;
+        for (int i = moveIndex + 1; i < moveCount; i++) {
+            if (scores[i] > scores[best]) best = i;
+        }
+
+        int move = moves[best];
+        moves[best] = moves[moveIndex];
+        scores[best] = scores[moveIndex];
+        moveIndex++;
+        return move;
+    }
+}
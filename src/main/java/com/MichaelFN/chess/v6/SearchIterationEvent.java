@@ -0,0 +1,40 @@
+package com.MichaelFN.chess.v6;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One iteration of iterative deepening on one search thread, recorded by Java Flight Recorder.
+ * The event's duration is the time of the iteration, so it lines up with the CPU and GC events of the recording.
+ * While no recording is running the event is disabled and begin()/commit() are removed by the JIT.
+ */
+@Name("com.MichaelFN.chess.SearchIteration")
+@Label("Search Iteration")
+@Category({"Chess", "Search"})
+@StackTrace(false)
+class SearchIterationEvent extends jdk.jfr.Event {
+    @Label("Depth")
+    int depth;
+
+    @Label("Score")
+    @Description("Score of the best line in centipawns, from the side to move")
+    int score;
+
+    @Label("Nodes")
+    @Description("Nodes searched by this thread since the start of the search")
+    long nodes;
+
+    @Label("Aspiration Re-searches")
+    @Description("Searches repeated with a full window because the score fell outside the aspiration window")
+    long aspirationResearches;
+
+    @Label("Helper Thread")
+    boolean helper;
+
+    @Label("Completed")
+    @Description("False when the iteration was stopped by the time or node limit")
+    boolean completed;
+}
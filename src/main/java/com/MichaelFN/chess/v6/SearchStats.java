@@ -0,0 +1,177 @@
+package com.MichaelFN.chess.v6;
+
+import java.util.Locale;
+
+public class SearchStats {
+    /**
+     * Counters of one search. Every search thread counts into its own instance without synchronization,
+     * the totals are summed with add() when the search is done.
+     *
+     * - First-move cutoff rate: share of beta cutoffs caused by the first move searched, a measure of move ordering.
+     * - Effective branching factor of a depth: nodes of that iteration divided by the nodes of the previous one.
+     */
+
+    public enum Output { OFF, INFO, JSON }
+
+    public long nodes;
+    public long qsearchNodes;
+
+    public long ttProbes;
+    public long ttHits;
+    public long ttCutoffs;
+
+    public long nullMoveAttempts;
+    public long nullMoveCutoffs;
+
+    public long lmrReductions;
+    public long lmrResearches;
+
+    public long futilityPrunes;
+
+    public long evalCacheProbes;
+    public long evalCacheHits;
+
+    public long aspirationFailHighs;
+    public long aspirationFailLows;
+
+    public long betaCutoffs;
+    public long firstMoveCutoffs;
+
+    // Nodes of the main thread when each iteration was completed
+    public final long[] nodesAtDepth = new long[Searcher.MAX_DEPTH + 1];
+    public int completedDepth;
+
+    public void reset() {
+        nodes = 0;
+        qsearchNodes = 0;
+        ttProbes = 0;
+        ttHits = 0;
+        ttCutoffs = 0;
+        nullMoveAttempts = 0;
+        nullMoveCutoffs = 0;
+        lmrReductions = 0;
+        lmrResearches = 0;
+        futilityPrunes = 0;
+        evalCacheProbes = 0;
+        evalCacheHits = 0;
+        aspirationFailHighs = 0;
+        aspirationFailLows = 0;
+        betaCutoffs = 0;
+        firstMoveCutoffs = 0;
+        completedDepth = 0;
+    }
+
+    // Adds the counters of another thread, the depth statistics are kept
+    public void add(SearchStats other) {
+        nodes += other.nodes;
+        qsearchNodes += other.qsearchNodes;
+        ttProbes += other.ttProbes;
+        ttHits += other.ttHits;
+        ttCutoffs += other.ttCutoffs;
+        nullMoveAttempts += other.nullMoveAttempts;
+        nullMoveCutoffs += other.nullMoveCutoffs;
+        lmrReductions += other.lmrReductions;
+        lmrResearches += other.lmrResearches;
+        futilityPrunes += other.futilityPrunes;
+        evalCacheProbes += other.evalCacheProbes;
+        evalCacheHits += other.evalCacheHits;
+        aspirationFailHighs += other.aspirationFailHighs;
+        aspirationFailLows += other.aspirationFailLows;
+        betaCutoffs += other.betaCutoffs;
+        firstMoveCutoffs += other.firstMoveCutoffs;
+    }
+
+    public void copyFrom(SearchStats other) {
+        reset();
+        add(other);
+        completedDepth = other.completedDepth;
+        System.arraycopy(other.nodesAtDepth, 0, nodesAtDepth, 0, nodesAtDepth.length);
+    }
+
+    public void completeDepth(int depth, long totalNodes) {
+        nodesAtDepth[depth] = totalNodes;
+        completedDepth = depth;
+    }
+
+    public long getTotalNodes() {
+        return nodes + qsearchNodes;
+    }
+
+    public double getTTHitRate() {
+        return rate(ttHits, ttProbes);
+    }
+
+    public double getTTCutoffRate() {
+        return rate(ttCutoffs, ttProbes);
+    }
+
+    public double getNullMoveCutoffRate() {
+        return rate(nullMoveCutoffs, nullMoveAttempts);
+    }
+
+    public double getLmrResearchRate() {
+        return rate(lmrResearches, lmrReductions);
+    }
+
+    public double getEvalCacheHitRate() {
+        return rate(evalCacheHits, evalCacheProbes);
+    }
+
+    public double getFirstMoveCutoffRate() {
+        return rate(firstMoveCutoffs, betaCutoffs);
+    }
+
+    // 0 when the depth or the one before it was not completed
+    public double getEffectiveBranchingFactor(int depth) {
+        if (depth < 2 || depth > completedDepth) return 0;
+        long previous = nodesAtDepth[depth - 1] - (depth >= 3 ? nodesAtDepth[depth - 2] : 0);
+        long current = nodesAtDepth[depth] - nodesAtDepth[depth - 1];
+        return previous > 0 ? (double) current / previous : 0;
+    }
+
+    private static double rate(long part, long total) {
+        return total > 0 ? (double) part / total : 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT,
+                "nodes %d qnodes %d tt probes %d hits %.1f%% cutoffs %.1f%% null %d cutoffs %.1f%% " +
+                        "lmr %d researches %.1f%% futility %d evalcache probes %d hits %.1f%% " +
+                        "aspiration high %d low %d cutoffs %d first %.1f%% ebf",
+                nodes, qsearchNodes, ttProbes, 100 * getTTHitRate(), 100 * getTTCutoffRate(),
+                nullMoveAttempts, 100 * getNullMoveCutoffRate(), lmrReductions, 100 * getLmrResearchRate(),
+                futilityPrunes, evalCacheProbes, 100 * getEvalCacheHitRate(), aspirationFailHighs, aspirationFailLows, betaCutoffs, 100 * getFirstMoveCutoffRate()));
+        for (int depth = 2; depth <= completedDepth; depth++) {
+            sb.append(String.format(Locale.ROOT, " %d:%.2f", depth, getEffectiveBranchingFactor(depth)));
+        }
+        return sb.toString();
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"nodes\":").append(nodes)
+                .append(",\"qsearchNodes\":").append(qsearchNodes)
+                .append(",\"ttProbes\":").append(ttProbes)
+                .append(",\"ttHits\":").append(ttHits)
+                .append(",\"ttCutoffs\":").append(ttCutoffs)
+                .append(",\"nullMoveAttempts\":").append(nullMoveAttempts)
+                .append(",\"nullMoveCutoffs\":").append(nullMoveCutoffs)
+                .append(",\"lmrReductions\":").append(lmrReductions)
+                .append(",\"lmrResearches\":").append(lmrResearches)
+                .append(",\"futilityPrunes\":").append(futilityPrunes)
+                .append(",\"evalCacheProbes\":").append(evalCacheProbes)
+                .append(",\"evalCacheHits\":").append(evalCacheHits)
+                .append(",\"aspirationFailHighs\":").append(aspirationFailHighs)
+                .append(",\"aspirationFailLows\":").append(aspirationFailLows)
+                .append(",\"betaCutoffs\":").append(betaCutoffs)
+                .append(",\"firstMoveCutoffRate\":").append(String.format(Locale.ROOT, "%.4f", getFirstMoveCutoffRate()))
+                .append(",\"ebf\":[");
+        for (int depth = 2; depth <= completedDepth; depth++) {
+            if (depth > 2) sb.append(',');
+            sb.append(String.format(Locale.ROOT, "%.3f", getEffectiveBranchingFactor(depth)));
+        }
+        return sb.append("]}").toString();
+    }
+}
@@ -1,141 +1,412 @@
 package com.MichaelFN.chess.v6;
 
+import com.MichaelFN.chess.common.SearchLimits;
+import com.MichaelFN.chess.interfaces.BitboardEvaluator;
 import com.MichaelFN.chess.v5.Constants;
 import com.MichaelFN.chess.v5.Utils;
 import com.MichaelFN.chess.v5.board.Board;
 import com.MichaelFN.chess.v5.move.Move;
 import com.MichaelFN.chess.v5.move.MoveGenerator;
-import com.MichaelFN.chess.v5.search.Evaluator;
 import com.MichaelFN.chess.v5.search.TTEntry;
 import com.MichaelFN.chess.v5.search.TranspositionTable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.MichaelFN.chess.common.Constants.DEBUG_SEARCH;
 import static com.MichaelFN.chess.v5.Constants.*;
 
 public class Searcher {
-    private static final int MAX_DEPTH = 64;
+    static final int MAX_DEPTH = 64;
     private static final int CHECKMATE_SCORE = 99999999;
     private static final int DRAW_SCORE = 1;
+    public static final int MAX_THREADS = 256;
+    public static final int DEFAULT_HASH_SIZE_MB = 256;
+    public static final int MAX_MULTI_PV = 64;
 
     private final MoveGenerator moveGenerator = new MoveGenerator();
-    private final Evaluator evaluator;
-    private final TranspositionTable transpositionTable = new TranspositionTable(256);
-
-    private int nodesSearched;
-    private int branchesPruned;
-    public boolean timeIsUp;
+    private final MovePicker[] movePickers = new MovePicker[MAX_PLY];
+    private BitboardEvaluator evaluator;
+    private final TranspositionTable transpositionTable;
+    private final EvalCache evalCache;      // Shared with the helpers like the transposition table
+
+    private long nodesSearched;                             // Node and time budget, counts quiescence nodes too
+    private final SearchStats stats = new SearchStats();    // This thread only
+    private final SearchStats lastSearchStats = new SearchStats();  // All threads, of the last finished search
+    private SearchStats.Output statsOutput = SearchStats.Output.OFF;
+    private boolean searchOutput = true;        // Info lines, stats and debug output
+    private int bestScore;
+    private int ponderMove;     // Expected reply to the best move, from the last completed iteration
+    private long searchStartTime;
+    public volatile boolean timeIsUp;
+
+    private final TimeManager timeManager;      // Shared with the helpers, so they follow a ponderhit
+    private long nodeLimit = Long.MAX_VALUE;    // Main thread only, helpers run until they are stopped
+
+    // Lazy SMP: helper searchers share the transposition table with the main thread
+    private final boolean isMainThread;
+    private Searcher[] helpers = new Searcher[0];
+    private ExecutorService helperPool;
 
     // Save principal variation for every depth
     private final int[][] pvTable = new int[MAX_DEPTH][MAX_DEPTH];
     private final int[] pvLength = new int[MAX_DEPTH];
 
+    // MultiPV: best lines of the last completed depth, best first
+    private int multiPV = 1;
+    private final int[][] linePvs = new int[MAX_MULTI_PV][MAX_DEPTH];
+    private final int[] linePvLengths = new int[MAX_MULTI_PV];
+    private final int[] lineScores = new int[MAX_MULTI_PV];
+
+    // Root moves of the better lines, skipped while searching the next line
+    private final int[] rootExclusions = new int[MAX_MULTI_PV];
+    private int rootExclusionCount;
+
     // Killer moves are quiet moves that caused a beta-cutoff (good quiet moves)
     private final int[][] killerMoves = new int[MAX_PLY][2];  // store 2 killers per ply
 
     // Remembers good quiet moves across all positions
     private final int[][] historyHeuristic = new int[7][64];
 
-    public Searcher(Evaluator evaluator) {
+    public Searcher(BitboardEvaluator evaluator) {
+        this(evaluator, DEFAULT_HASH_SIZE_MB);
+    }
+
+    public Searcher(BitboardEvaluator evaluator, int hashSizeMB) {
+        this(evaluator, new TranspositionTable(hashSizeMB), new EvalCache(EvalCache.DEFAULT_SIZE_MB), new TimeManager(), true);
+    }
+
+    private Searcher(BitboardEvaluator evaluator, TranspositionTable transpositionTable, EvalCache evalCache, TimeManager timeManager,
+                     boolean isMainThread) {
         this.evaluator = evaluator;
+        this.transpositionTable = transpositionTable;
+        this.evalCache = evalCache;
+        this.timeManager = timeManager;
+        this.isMainThread = isMainThread;
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            movePickers[ply] = new MovePicker(moveGenerator, ply);
+        }
     }
 
     public int negamax(Board board, int maxDepth, long timeMS) {
+        timeManager.startFixedTime(timeMS);
+        return search(board, maxDepth, Long.MAX_VALUE);
+    }
+
+    public int search(Board board, SearchLimits limits) {
+        timeManager.start(limits, board.playerToMove);
+        long nodeLimit = limits.nodes == SearchLimits.NO_LIMIT ? Long.MAX_VALUE : limits.nodes;
+        return search(board, Math.min(limits.depth, MAX_DEPTH), nodeLimit);
+    }
+
+    private int search(Board board, int maxDepth, long nodeLimit) {
         nodesSearched = 0;
-        branchesPruned = 0;
+        stats.reset();
         timeIsUp = false;
+        this.nodeLimit = nodeLimit;
+        transpositionTable.newSearch();
+
+        // The game moves of setPosition were pushed on the NNUE accumulator too, the search starts at its bottom
+        if (board.accumulator != null) board.accumulator.resetToRoot();
+
+        searchStartTime = System.currentTimeMillis();
+
+        // Helpers search their own copy of the board and only contribute through the transposition table
+        List<Future<?>> helperSearches = startHelpers(board, maxDepth);
+
+        int bestMove = iterativeDeepening(board, maxDepth, 1);
 
+        stopHelpers(helperSearches);
+
+        lastSearchStats.copyFrom(stats);
+        for (Searcher helper : helpers) lastSearchStats.add(helper.stats);
+
+        if (searchOutput) printSearchEnd(bestMove);
+        return bestMove;
+    }
+
+    private void printSearchEnd(int bestMove) {
+        switch (statsOutput) {
+            case INFO -> System.out.println("info string stats " + lastSearchStats);
+            case JSON -> System.out.println("info string " + lastSearchStats.toJson());
+            case OFF -> { }
+        }
+
+        // Not part of the protocol, so only as info strings that GUIs show or ignore
+        if (DEBUG_SEARCH) {
+            System.out.println("info string Nodes searched: " + getNodesSearched());
+            System.out.println("info string Threads: " + getThreads());
+            System.out.println("info string Time used: " + (System.currentTimeMillis() - searchStartTime));
+            System.out.println("info string Best score: " + bestScore);
+            System.out.println("info string Best move: " + Move.toString(bestMove));
+            System.out.println("info string " + transpositionTable);
+            System.out.println("info string Search stats: " + lastSearchStats);
+        }
+    }
+
+    private int iterativeDeepening(Board board, int maxDepth, int startDepth) {
         clearPrincipalVariation();
         clearKillerMoves();
         clearHistoryHeuristics();
         //clearTranspositionTable();  // For some reason the engine won't detect repetition sometimes if I dont clear this...
 
         int bestMove = 0;
-        int bestScore = 0;
-
-        long startTime = System.currentTimeMillis();
-        long endTime = startTime + timeMS;
+        bestScore = 0;
+        ponderMove = 0;
 
-        int alpha = Integer.MIN_VALUE + 1;
-        int beta = Integer.MAX_VALUE - 1;
+        // Helpers only search the best line, they still fill the table for the other lines
+        int lines = isMainThread ? Math.min(multiPV, countRootMoves(board)) : 1;
+        for (int[] pv : linePvs) Arrays.fill(pv, 0);
+        Arrays.fill(lineScores, 0);
+        Arrays.fill(linePvLengths, 0);
 
-        // Aspiration window
-        int guess = 0;
-        int window = 100;
+        // Checkmate or stalemate, there is no move to search
+        if (lines == 0) return 0;
 
         // Iterative deepening
-        for (int depth = 1; depth <= maxDepth; depth++) {
+        for (int depth = startDepth; depth <= maxDepth; depth++) {
             long iterStartTime = System.currentTimeMillis();
-            long nodesBefore = nodesSearched;
-
-            // Search with full window at depth 1
-            if (depth > 1) {
-                alpha = guess - window;
-                beta = guess + window;
+            SearchIterationEvent event = new SearchIterationEvent();
+            event.begin();
+            long aspirationFails = stats.aspirationFailHighs + stats.aspirationFailLows;
+
+            // Every line is searched with the moves of the better lines excluded at the root
+            int linesSearched = 0;
+            for (int line = 0; line < lines; line++) {
+                rootExclusionCount = line;
+                restoreLine(line);
+
+                int score = aspirationSearch(board, depth, lineScores[line], depth > startDepth);
+                if (timeIsUp) break;
+
+                saveLine(line, score);
+                rootExclusions[line] = pvTable[0][0];
+                linesSearched++;
             }
+            rootExclusionCount = 0;
+
+            boolean completed = linesSearched == lines;
+            if (completed) sortLines(lines);
+            if (event.shouldCommit()) {
+                event.depth = depth;
+                event.score = lineScores[0];
+                event.nodes = nodesSearched;
+                event.aspirationResearches = stats.aspirationFailHighs + stats.aspirationFailLows - aspirationFails;
+                event.helper = !isMainThread;
+                event.completed = completed;
+                event.commit();
+            }
+
+            if (!completed) break;
 
-            int score = negamax(board, depth, alpha, beta, 0, endTime, true);
+            bestScore = lineScores[0];
+            bestMove = linePvs[0][0];
+            ponderMove = linePvLengths[0] > 1 ? linePvs[0][1] : 0;
 
-            // If score outside aspiration window, re-search with full window
-            if (score <= alpha || score >= beta) {
-                alpha = Integer.MIN_VALUE + 1;
-                beta = Integer.MAX_VALUE - 1;
-                score = negamax(board, depth, alpha, beta, 0, endTime, true);
+            // Nodes of this thread only, helpers search other depths at the same time
+            if (isMainThread) stats.completeDepth(depth, nodesSearched);
+
+            boolean forcedCheckmate = (Math.abs(bestScore) >= CHECKMATE_SCORE - MAX_PLY);
+
+            if (isMainThread && searchOutput) {
+                for (int line = 0; line < lines; line++) printLine(line, lines, depth);
             }
 
-            if (timeIsUp) break;
+            // The other lines of a MultiPV search still gain from more depth
+            if (forcedCheckmate && lines == 1) break;
 
-            guess = score;
-            bestScore = score;
-            bestMove = pvTable[0][0];
+            // Only the main thread decides when to stop, helpers are stopped with it
+            if (isMainThread && timeManager.shouldStop(bestMove, System.currentTimeMillis() - iterStartTime)) break;
+        }
 
-            // Hack for not printing illegal moves when checkmate found
-            boolean forcedCheckmate = (Math.abs(bestScore) >= CHECKMATE_SCORE - MAX_PLY);
+        return bestMove;
+    }
+
+    private int aspirationSearch(Board board, int depth, int guess, boolean useWindow) {
+        int window = 100;
+        int alpha = useWindow ? guess - window : Integer.MIN_VALUE + 1;
+        int beta = useWindow ? guess + window : Integer.MAX_VALUE - 1;
+
+        int score = negamax(board, depth, alpha, beta, 0, true);
+
+        // If score outside aspiration window, re-search with full window
+        if (score <= alpha || score >= beta) {
+            if (score <= alpha) stats.aspirationFailLows++;
+            else stats.aspirationFailHighs++;
+
+            alpha = Integer.MIN_VALUE + 1;
+            beta = Integer.MAX_VALUE - 1;
+            score = negamax(board, depth, alpha, beta, 0, true);
+        }
+        return score;
+    }
+
+    private int countRootMoves(Board board) {
+        moveGenerator.generateLegalMoves(board, 0);
+        return moveGenerator.legalMoveCounts[0];
+    }
+
+    private boolean isExcludedRootMove(int move) {
+        for (int i = 0; i < rootExclusionCount; i++) {
+            if (rootExclusions[i] == move) return true;
+        }
+        return false;
+    }
+
+    // The line's own principal variation is searched first again
+    private void restoreLine(int line) {
+        if (linePvLengths[line] == 0) return;
+        System.arraycopy(linePvs[line], 0, pvTable[0], 0, linePvLengths[line]);
+        pvLength[0] = linePvLengths[line];
+    }
+
+    private void saveLine(int line, int score) {
+        System.arraycopy(pvTable[0], 0, linePvs[line], 0, pvLength[0]);
+        linePvLengths[line] = pvLength[0];
+        lineScores[line] = score;
+    }
 
-            if (DEBUG_SEARCH) {
-                long iterEndTime = System.currentTimeMillis();
-                long timeSpent = Math.max(iterEndTime - iterStartTime, 1);
-                long nodesThisDepth = nodesSearched - nodesBefore;
-                long nodesPerSecond = (nodesThisDepth * 1000) / timeSpent;
-
-                System.out.print("info depth " + depth +
-                        " score cp " + bestScore +
-                        " nodes " + nodesThisDepth +
-                        " nps " + nodesPerSecond +
-                        " time " + timeSpent +
-                        " pv ");
-                List<Integer> pvMoves = getPrincipalVariation(0);
-                int count = Math.min(pvMoves.size(), depth);
-                if (forcedCheckmate) count--;
-                for (int i = 0; i < count; i++) System.out.print(Utils.moveToUci(pvMoves.get(i)) + " ");
-                System.out.println();
+    // Later lines can score higher than earlier ones when the search is unstable
+    private void sortLines(int lines) {
+        for (int i = 1; i < lines; i++) {
+            for (int j = i; j > 0 && lineScores[j] > lineScores[j - 1]; j--) {
+                int score = lineScores[j];
+                lineScores[j] = lineScores[j - 1];
+                lineScores[j - 1] = score;
+
+                int[] pv = linePvs[j];
+                linePvs[j] = linePvs[j - 1];
+                linePvs[j - 1] = pv;
+
+                int length = linePvLengths[j];
+                linePvLengths[j] = linePvLengths[j - 1];
+                linePvLengths[j - 1] = length;
             }
+        }
+    }
+
+    // Totals since the start of the search, as UCI expects
+    private void printLine(int line, int lines, int depth) {
+        long timeSpent = Math.max(System.currentTimeMillis() - searchStartTime, 1);
+        long nodes = getNodesSearched();
+        long nodesPerSecond = (nodes * 1000) / timeSpent;
+        int score = lineScores[line];
+
+        StringBuilder info = new StringBuilder("info depth " + depth);
+        if (lines > 1) info.append(" multipv ").append(line + 1);
+        info.append(" score ").append(scoreToUci(score))
+                .append(" nodes ").append(nodes)
+                .append(" nps ").append(nodesPerSecond)
+                .append(" hashfull ").append(transpositionTable.hashfull())
+                .append(" time ").append(timeSpent)
+                .append(" pv");
+
+        int count = Math.min(linePvLengths[line], depth);
+        for (int i = 0; i < count; i++) info.append(' ').append(Utils.moveToUci(linePvs[line][i]));
+        System.out.println(info);
+    }
+
+    public void setMultiPV(int multiPV) {
+        this.multiPV = Math.max(1, Math.min(multiPV, MAX_MULTI_PV));
+    }
+
+    // Mate scores are given in moves, negative when the engine is getting mated
+    private static String scoreToUci(int score) {
+        if (Math.abs(score) < CHECKMATE_SCORE - MAX_PLY) return "cp " + score;
+        int plies = CHECKMATE_SCORE - Math.abs(score);
+        return "mate " + (score > 0 ? (plies + 1) / 2 : -(plies / 2));
+    }
 
-            if (forcedCheckmate) break;
+    private List<Future<?>> startHelpers(Board board, int maxDepth) {
+        List<Future<?>> helperSearches = new ArrayList<>(helpers.length);
+        for (int i = 0; i < helpers.length; i++) {
+            Searcher helper = helpers[i];
+            Board helperBoard = new Board(board);
+
+            // Every other helper starts one ply deeper, so the threads are not all searching the same depth
+            int startDepth = 1 + (i + 1) % 2;
+
+            helper.nodesSearched = 0;
+            helper.stats.reset();
+            helper.timeIsUp = false;
+            helperSearches.add(helperPool.submit(() -> helper.iterativeDeepening(helperBoard, maxDepth, startDepth)));
         }
+        return helperSearches;
+    }
 
-        if (DEBUG_SEARCH) {
-            System.out.println("Nodes searched: " + nodesSearched);
-            System.out.println("Branched pruned: " + branchesPruned);
-            System.out.println("Time used: " + (System.currentTimeMillis() - startTime));
-            System.out.println("Best score: " + bestScore);
-            System.out.println("Best move: " + Move.toString(bestMove));
-            System.out.println(transpositionTable);
+    private void stopHelpers(List<Future<?>> helperSearches) {
+        for (Searcher helper : helpers) helper.timeIsUp = true;
+        for (Future<?> helperSearch : helperSearches) {
+            try {
+                helperSearch.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Helper search failed", e.getCause());
+            }
         }
-        return bestMove;
     }
 
-    private int negamax(Board board, int depth, int alpha, int beta, int ply, long endTime, boolean isPv) {
+    public void setThreads(int threads) {
+        threads = Math.max(1, Math.min(threads, MAX_THREADS));
+        if (threads == getThreads()) return;
+
+        if (helperPool != null) helperPool.shutdownNow();
+
+        helpers = new Searcher[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new Searcher(evaluator, transpositionTable, evalCache, timeManager, false);
+        }
+
+        helperPool = helpers.length == 0 ? null : Executors.newFixedThreadPool(helpers.length, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getThreads() {
+        return helpers.length + 1;
+    }
+
+    public void setStatsOutput(SearchStats.Output statsOutput) {
+        this.statsOutput = statsOutput;
+    }
+
+    public void setSearchOutput(boolean enabled) {
+        searchOutput = enabled;
+    }
+
+    // Counters of all threads of the last finished search
+    public SearchStats getStats() {
+        return lastSearchStats;
+    }
+
+    public long getNodesSearched() {
+        long nodes = nodesSearched;
+        for (Searcher helper : helpers) nodes += helper.nodesSearched;
+        return nodes;
+    }
+
+    private int negamax(Board board, int depth, int alpha, int beta, int ply, boolean isPv) {
         // Check for timeout before any computation
-        if ((nodesSearched & 2048) == 0 && System.currentTimeMillis() > endTime) {
+        if (isOutOfBudget()) {
             timeIsUp = true;
             return 0;
         }
 
         nodesSearched++;
+        stats.nodes++;
+
+        // The previous principal variation at this ply orders the moves. The PV of this node starts out empty,
+        // so a parent never copies a stale line from a node that returned early.
+        int pvMove = pvLength[ply] > 0 ? pvTable[ply][0] : 0;
+        pvLength[ply] = 0;
 
         // Repetition, fifty move rule, insufficient material
         if (board.isRepetition() || board.fiftyMoveRule() || board.isInsufficientMaterial()) {
@@ -144,40 +415,50 @@ public class Searcher {
 
         // Transposition table lookup
         long hashKey = board.hashKey;
-        TTEntry ttEntry = transpositionTable.get(hashKey);
+        long ttEntry = transpositionTable.get(hashKey);
         int ttMove = 0;
 
-        if (!isPv && ttEntry != null) {
-            ttMove = ttEntry.bestMove;
+        stats.ttProbes++;
+        if (ttEntry != TranspositionTable.NO_ENTRY) stats.ttHits++;
 
-            if (ttEntry.depth >= depth) {
-                if (ttEntry.flag == TTEntry.EXACT) {
-                    return ttEntry.score;
-                } else if (ttEntry.flag == TTEntry.LOWERBOUND && ttEntry.score > alpha) {
-                    alpha = ttEntry.score;
-                } else if (ttEntry.flag == TTEntry.UPPERBOUND && ttEntry.score < beta) {
-                    beta = ttEntry.score;
+        if (ttEntry != TranspositionTable.NO_ENTRY) {
+            ttMove = TTEntry.getBestMove(ttEntry);
+
+            if (!isPv && TTEntry.getDepth(ttEntry) >= depth) {
+                int ttScore = TTEntry.getScore(ttEntry);
+                int ttFlag = TTEntry.getFlag(ttEntry);
+
+                if (ttFlag == TTEntry.EXACT) {
+                    stats.ttCutoffs++;
+                    return ttScore;
+                } else if (ttFlag == TTEntry.LOWERBOUND && ttScore > alpha) {
+                    alpha = ttScore;
+                } else if (ttFlag == TTEntry.UPPERBOUND && ttScore < beta) {
+                    beta = ttScore;
                 }
 
                 if (alpha >= beta) {
-                    branchesPruned++;
-                    return ttEntry.score;
+                    stats.ttCutoffs++;
+                    return ttScore;
                 }
             }
         }
 
         // Reached max depth: evaluate using quiescence search
         if (depth <= 0) {
-            return quiescence(board, alpha, beta, ply + 1, endTime);
+            return quiescence(board, alpha, beta, ply + 1);
         }
 
-        // Generate and order all legal moves
-        moveGenerator.generateLegalMoves(board, ply);
-        int moveCount = moveGenerator.legalMoveCounts[ply];
+        boolean isInCheck = Utils.isInCheck(board, board.playerToMove);
+
+        // Moves are generated in stages, later stages only when earlier moves did not cut off
+        MovePicker movePicker = movePickers[ply];
+        movePicker.init(board, pvMove, ttMove, killerMoves[ply], historyHeuristic);
 
-        // No legal moves
-        if (moveCount == 0) {
-            if (Utils.isInCheck(board, board.playerToMove)) {
+        // No legal moves. Checked before the null move, which would let a stalemated side pass and fail high.
+        int move = movePicker.next();
+        if (move == 0) {
+            if (isInCheck) {
                 // Checkmate
                 return -CHECKMATE_SCORE + ply;
             }
@@ -186,45 +467,43 @@ public class Searcher {
         }
 
         // Null move pruning
-        boolean isInCheck = Utils.isInCheck(board, board.playerToMove);
         if (depth >= 3 &&
                 !isInCheck &&
                 (board.pieces[WHITE][QUEEN] | board.pieces[BLACK][QUEEN]) != 0 &&
                 !timeIsUp) {
 
+            stats.nullMoveAttempts++;
             board.makeNullMove();
 
             int R = (depth >= 6) ? 3 : 2;
-            int score = -negamax(board, depth - R - 1, -beta, -beta + 1, ply + 1, endTime, false);
+            int score = -negamax(board, depth - R - 1, -beta, -beta + 1, ply + 1, false);
 
             board.unmakeNullMove();
 
             if (score >= beta) {
-                branchesPruned++;
+                stats.nullMoveCutoffs++;
                 return beta;
             }
         }
 
-        // Move ordering
-        int[] legalMoves = moveGenerator.legalMoves[ply];
-        int pvMove = pvLength[ply] > 0 ? pvTable[ply][0] : 0;
-        MoveOrdering.orderMoves(moveCount, legalMoves, pvMove, killerMoves, ttMove, historyHeuristic, board, ply);
-
         int maxScore = Integer.MIN_VALUE;
         int bestMoveAtThisNode = 0;
         int originalAlpha = alpha;
 
         boolean firstSearch = true;
         boolean updatePv = false;
-
-        for (int i = 0; i < moveCount; i++) {
-            if ((nodesSearched & 2048) == 0 && System.currentTimeMillis() > endTime) {
+        int staticEval = EvalCache.NO_SCORE;    // Only evaluated once a move could be pruned
+
+        // The null move search only uses the pickers of deeper plies, so the first move is still the next one here
+        int i = -1;
+        do {
+            if (ply == 0 && isExcludedRootMove(move)) continue;
+            i++;
+            if (isOutOfBudget()) {
                 timeIsUp = true;
                 return 0;
             }
 
-            int move = legalMoves[i];
-
             // Futility pruning
             if (!firstSearch) {
                 if ((depth == 1) &&
@@ -232,11 +511,11 @@ public class Searcher {
                         !Move.isCapture(move) &&
                         !Move.isPromotion(move)) {
 
-                    int staticEval = evaluator.evaluate(board);
+                    if (staticEval == EvalCache.NO_SCORE) staticEval = evaluate(board);
                     int margin = 150;
 
                     if (staticEval + margin <= alpha) {
-                        branchesPruned++;
+                        stats.futilityPrunes++;
                         continue;
                     }
                 }
@@ -251,7 +530,7 @@ public class Searcher {
             int score;
             if (firstSearch) {
                 // Full window search on first move
-                score = -negamax(board, depth - 1 + extension, -beta, -alpha, ply + 1, endTime, isPv);
+                score = -negamax(board, depth - 1 + extension, -beta, -alpha, ply + 1, isPv);
                 firstSearch = false;
                 updatePv = true;
 
@@ -261,14 +540,17 @@ public class Searcher {
                 int newDepth = (i >= 6 && depth >= 5 && !Move.isCapture(move) && !Move.isPromotion(move) && move != ttMove && ply > 1) ?
                         depth - 2 : // Reduce depth
                         depth - 1;  // Don't reduce
+                boolean reduced = newDepth < depth - 1;
+                if (reduced) stats.lmrReductions++;
 
                 // Null window search
-                score = -negamax(board, newDepth, -alpha - 1, -alpha, ply + 1, endTime, false);
+                score = -negamax(board, newDepth, -alpha - 1, -alpha, ply + 1, false);
                 updatePv = false;
 
                 // Re-search only if score suggests move is better, and window is wide enough
                 if (score > alpha && score < beta) {
-                    score = -negamax(board, depth - 1 + extension, -beta, -alpha, ply + 1, endTime, true);
+                    if (reduced) stats.lmrResearches++;
+                    score = -negamax(board, depth - 1 + extension, -beta, -alpha, ply + 1, true);
                     updatePv = true;
                 }
             }
@@ -289,7 +571,8 @@ public class Searcher {
 
             // Beta cutoff
             if (alpha >= beta) {
-                branchesPruned++;
+                stats.betaCutoffs++;
+                if (i == 0) stats.firstMoveCutoffs++;
 
                 // Store killer move
                 if (!Move.isCapture(bestMoveAtThisNode) && !Move.isPromotion(bestMoveAtThisNode)) {
@@ -306,9 +589,10 @@ public class Searcher {
 
                 break;
             }
-        }
+        } while ((move = movePicker.next()) != 0);
 
-        if (!timeIsUp) {
+        // A root searched without some of its moves does not have its real score
+        if (!timeIsUp && (ply > 0 || rootExclusionCount == 0)) {
             // Store result in transposition table
             storeResult(hashKey, depth, maxScore, bestMoveAtThisNode, originalAlpha, beta);
         }
@@ -316,60 +600,69 @@ public class Searcher {
         return maxScore;
     }
 
-    private int quiescence(Board board, int alpha, int beta, int ply, long endTime) {
+    private int quiescence(Board board, int alpha, int beta, int ply) {
         // Avoid some overhead
-        if ((nodesSearched & 2048) == 0 && System.currentTimeMillis() > endTime) {
+        if (isOutOfBudget()) {
             timeIsUp = true;
             return 0;
         }
 
         nodesSearched++;
+        stats.qsearchNodes++;
 
         // Evaluate the position without making any further captures ("stand pat").
         // This serves as the baseline score if we choose to do nothing.
         // Helps prune bad capture sequences and avoid horizon effect.
         // The horizon effect: Engine can't spot imminent threat because search has been stopped just before.
-        int standPat = evaluator.evaluate(board);
+        int standPat = evaluate(board);
 
         //if (standPat + DELTA_MARGIN < alpha) return alpha;
         if (standPat >= beta) return beta;
         if (standPat > alpha) alpha = standPat;
 
-        // Generate legal captures
-        moveGenerator.generateLegalCaptures(board, ply);
-        int captureCount = moveGenerator.legalMoveCounts[ply];
-
-        // No legal captures
-        if (captureCount == 0) return alpha;
-
-        // Order all legal captures (TODO: Maybe include promotions and other important moves like checks)
-        int[] captures = moveGenerator.legalMoves[ply];
-        MoveOrdering.orderMoves(captureCount, captures, 0, null, 0, null, board, ply);
+        // Legal captures, generated when the first one is needed (TODO: Maybe include promotions and other important moves like checks)
+        MovePicker movePicker = movePickers[ply];
+        movePicker.initCaptures(board);
 
-        for (int i = 0; i < captureCount; i++) {
-            if ((nodesSearched & 2048) == 0 && System.currentTimeMillis() > endTime) {
+        int move;
+        while ((move = movePicker.next()) != 0) {
+            if (isOutOfBudget()) {
                 timeIsUp = true;
                 return 0;
             }
 
-            int move = captures[i];
-
             board.makeMove(move);
-            int score = -quiescence(board, -beta, -alpha, ply + 1, endTime);
+            int score = -quiescence(board, -beta, -alpha, ply + 1);
             board.unmakeMove();
 
             if (timeIsUp) break;
 
-            if (score >= beta) {
-                branchesPruned++;
-                return beta;
-            }
+            if (score >= beta) return beta;
             if (score > alpha) alpha = score;
         }
 
         return alpha;
     }
 
+    // Static evaluation, from the cache when the position was evaluated before
+    private int evaluate(Board board) {
+        stats.evalCacheProbes++;
+        int score = evalCache.probe(board.hashKey);
+        if (score != EvalCache.NO_SCORE) {
+            stats.evalCacheHits++;
+            return score;
+        }
+
+        score = evaluator.evaluate(board);
+        evalCache.store(board.hashKey, score);
+        return score;
+    }
+
+    // The clock is only read every 2048 nodes
+    private boolean isOutOfBudget() {
+        return nodesSearched >= nodeLimit || ((nodesSearched & 2047) == 0 && System.currentTimeMillis() > timeManager.getEndTime());
+    }
+
     private void storeResult(long hashKey, int depth, int maxScore, int bestMoveAtThisNode, int originalAlpha, int beta) {
         int flag;
         if (maxScore <= originalAlpha) {
@@ -391,18 +684,6 @@ public class Searcher {
         pvLength[ply] = nextPlyPVLength + 1;
     }
 
-    private List<Integer> getPrincipalVariation(int ply) {
-        int length = pvLength[ply];
-        List<Integer> pvMoves = new ArrayList<>(length);
-
-        for (int i = 0; i < length; i++) {
-            pvMoves.add(pvTable[ply][i]);
-        }
-
-        return pvMoves;
-    }
-
-
     private void clearPrincipalVariation() {
         for (int i = 0; i < pvTable.length; i++) {
             Arrays.fill(pvTable[i], 0);
@@ -414,6 +695,22 @@ public class Searcher {
         transpositionTable.clear();
     }
 
+    public void resizeTranspositionTable(int sizeInMB) {
+        transpositionTable.resize(sizeInMB);
+    }
+
+    public void resizeEvalCache(int sizeInMB) {
+        evalCache.resize(sizeInMB);
+    }
+
+    // Cached scores and table entries of the old evaluator no longer apply. Must not be called while searching.
+    public void setEvaluator(BitboardEvaluator evaluator) {
+        this.evaluator = evaluator;
+        for (Searcher helper : helpers) helper.evaluator = evaluator;
+        evalCache.clear();
+        transpositionTable.clear();
+    }
+
     public void clearKillerMoves() {
         for (int ply = 0; ply < MAX_PLY; ply++) {
             killerMoves[ply][0] = 0;
@@ -427,11 +724,22 @@ public class Searcher {
 
     public void clear() {
         clearTranspositionTable();
+        evalCache.clear();
         clearPrincipalVariation();
         clearKillerMoves();
     }
 
+    public int getPonderMove() {
+        return ponderMove;
+    }
+
+    // The expected move was played while pondering, the search continues on the clock
+    public void ponderHit() {
+        if (timeManager.ponderHit()) stop();
+    }
+
     public void stop() {
         timeIsUp = true;
+        for (Searcher helper : helpers) helper.timeIsUp = true;
     }
 }
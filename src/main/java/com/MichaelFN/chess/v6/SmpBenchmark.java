@@ -0,0 +1,60 @@
+package com.MichaelFN.chess.v6;
+
+import com.MichaelFN.chess.v5.board.Board;
+import com.MichaelFN.chess.v5.search.Evaluator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Measures time-to-depth and nodes per second of the Lazy SMP search for 1..N threads.
+ * Usage: SmpBenchmark [maxThreads] [depth] [positions]
+ */
+public class SmpBenchmark {
+    private static final long TIME_LIMIT_MS = 60 * 60 * 1000;
+
+    public static void main(String[] args) throws IOException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 9;
+        int n_positions = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        List<String> positions = Files.readAllLines(Paths.get("src/main/resources/100ChessPositions.csv")).stream()
+                .skip(1)
+                .limit(n_positions)
+                .map(line -> line.split(",")[0].trim())
+                .toList();
+
+        Searcher searcher = new Searcher(new Evaluator());
+        Board board = new Board();
+
+        long singleThreadTime = 0;
+        StringBuilder results = new StringBuilder();
+        results.append(String.format("%-8s %-14s %-14s %-12s %-8s%n", "Threads", "Time (ms)", "Nodes", "NPS", "Speedup"));
+
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            searcher.setThreads(threads);
+
+            long totalTime = 0;
+            long totalNodes = 0;
+            for (String FEN : positions) {
+                board.parseFEN(FEN);
+                searcher.clear();
+
+                long start = System.nanoTime();
+                searcher.negamax(board, depth, TIME_LIMIT_MS);
+                totalTime += System.nanoTime() - start;
+                totalNodes += searcher.getNodesSearched();
+            }
+
+            long timeMS = Math.max(totalTime / 1_000_000, 1);
+            if (threads == 1) singleThreadTime = timeMS;
+            results.append(String.format("%-8d %-14d %-14d %-12d %-8.2f%n",
+                    threads, timeMS, totalNodes, totalNodes * 1000 / timeMS, (double) singleThreadTime / timeMS));
+        }
+
+        System.out.println("\nTime to depth " + depth + " over " + positions.size() + " positions:");
+        System.out.print(results);
+    }
+}
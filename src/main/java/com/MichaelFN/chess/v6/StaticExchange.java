@@ -0,0 +1,113 @@
+package com.MichaelFN.chess.v6;
+
+import com.MichaelFN.chess.v5.Utils;
+import com.MichaelFN.chess.v5.board.Board;
+import com.MichaelFN.chess.v5.move.Move;
+
+import static com.MichaelFN.chess.v5.Constants.*;
+import static com.MichaelFN.chess.v5.board.Bitboard.*;
+import static com.MichaelFN.chess.v5.move.MoveTables.*;
+
+public class StaticExchange {
+    /**
+     * Static Exchange Evaluation: the material outcome of all captures on the target square of a move,
+     * where both sides recapture with their least valuable attacker and may stop when recapturing loses.
+     *
+     * Attackers are taken from the bitboards in one set. When a piece leaves the square's lines,
+     * the sliders behind it (x-rays) are found by recomputing the slider attacks with the new occupancy.
+     * Pins are ignored, a king only recaptures when the other side has no attackers left.
+     *
+     * Read more: <a href="https://www.chessprogramming.org/SEE_-_The_Swap_Algorithm">...</a>
+     */
+
+    private static final int MAX_EXCHANGES = 32;
+
+    // Speculative score after each capture of the exchange, reused so evaluating does not allocate
+    private final int[] gain = new int[MAX_EXCHANGES];
+
+    // Material won by the side to move in centipawns (middle game values), negative if the exchange loses
+    public int evaluate(Board board, int move) {
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        int us = board.playerToMove;
+
+        long occupancy = board.pieces[WHITE][ALL_PIECES] | board.pieces[BLACK][ALL_PIECES];
+
+        int pieceOnSquare = board.pieceAtSquare[from];
+        if (Move.isEnPassant(move)) {
+            gain[0] = value(PAWN);
+            occupancy ^= SQUARE_BB_LOOK_UP[us == WHITE ? to - 8 : to + 8];
+        } else {
+            gain[0] = Move.isCapture(move) ? value(board.pieceAtSquare[to]) : 0;
+        }
+        if (Move.isPromotion(move)) {
+            pieceOnSquare = Move.getPromotionPiece(move);
+            gain[0] += value(pieceOnSquare) - value(PAWN);
+        }
+
+        long fromBB = SQUARE_BB_LOOK_UP[from];
+        long attackers = attackersTo(board, to, occupancy);
+        int depth = 0;
+        int side = us;
+
+        while (fromBB != 0 && depth + 1 < MAX_EXCHANGES) {
+            depth++;
+            side = 1 - side;
+
+            // Score if the side to move now recaptures the piece that just captured
+            gain[depth] = value(pieceOnSquare) - gain[depth - 1];
+            if (Math.max(-gain[depth - 1], gain[depth]) < 0) break;
+
+            occupancy ^= fromBB;
+            attackers = (attackers | xRayAttackers(board, to, occupancy)) & occupancy;
+
+            // Least valuable attacker of the side to move
+            fromBB = 0;
+            long sideAttackers = attackers & board.pieces[side][ALL_PIECES];
+            for (int piece = PAWN; piece <= KING; piece++) {
+                long pieceAttackers = sideAttackers & board.pieces[side][piece];
+                if (pieceAttackers == 0) continue;
+
+                // The king can not capture into a defended square
+                if (piece == KING && (attackers & board.pieces[1 - side][ALL_PIECES]) != 0) break;
+
+                fromBB = pieceAttackers & -pieceAttackers;
+                pieceOnSquare = piece;
+                break;
+            }
+        }
+
+        // Each side only continues the exchange when it does not lose by it
+        while (--depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+        }
+        return gain[0];
+    }
+
+    // True if the move does not lose material
+    public boolean isNonLosing(Board board, int move) {
+        return evaluate(board, move) >= 0;
+    }
+
+    private static long attackersTo(Board board, int square, long occupancy) {
+        long[] white = board.pieces[WHITE];
+        long[] black = board.pieces[BLACK];
+        return (PAWN_ATTACK_MASKS[BLACK][square] & white[PAWN]) |
+                (PAWN_ATTACK_MASKS[WHITE][square] & black[PAWN]) |
+                (KNIGHT_MOVE_MASKS[square] & (white[KNIGHT] | black[KNIGHT])) |
+                (KING_MOVE_MASKS[square] & (white[KING] | black[KING])) |
+                xRayAttackers(board, square, occupancy);
+    }
+
+    private static long xRayAttackers(Board board, int square, long occupancy) {
+        long[] white = board.pieces[WHITE];
+        long[] black = board.pieces[BLACK];
+        long queens = white[QUEEN] | black[QUEEN];
+        return (Utils.getBishopMoves(square, occupancy) & (white[BISHOP] | black[BISHOP] | queens)) |
+                (Utils.getRookMoves(square, occupancy) & (white[ROOK] | black[ROOK] | queens));
+    }
+
+    private static int value(int piece) {
+        return MoveOrdering.pieceValue(piece);
+    }
+}
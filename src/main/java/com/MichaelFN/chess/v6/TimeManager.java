@@ -0,0 +1,141 @@
+package com.MichaelFN.chess.v6;
+
+import com.MichaelFN.chess.common.SearchLimits;
+
+public class TimeManager {
+    /**
+     * Decides how long a search may take.
+     *
+     * - Hard limit: the search is aborted when it is reached, wherever it is.
+     * - Soft limit: checked between iterations of iterative deepening. It shrinks while the best move stays
+     *   the same and grows when the best move changes, so stable positions are played faster.
+     * - An iteration is not started when the estimate of its duration goes past the hard limit,
+     *   since an aborted iteration adds nothing to the result.
+     *
+     * With movetime both limits are the given time. With a clock the time is split over the expected number of
+     * remaining moves, plus most of the increment. Infinite and depth/node-only searches have no time limit,
+     * and neither has pondering until the ponderhit.
+     */
+
+    // Time lost between the engine sending a move and the clock stopping
+    public static final long MOVE_OVERHEAD_MS = 30;
+
+    // Expected moves left when movestogo is not given
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    private static final int MAX_MOVES_TO_GO = 50;
+
+    // The hard limit is a multiple of the optimal time, but never more than a share of the clock
+    private static final int HARD_LIMIT_FACTOR = 4;
+    private static final double MAX_CLOCK_SHARE = 0.75;
+
+    // Soft limit scale depending on how many iterations in a row found the same best move
+    private static final double[] STABILITY_SCALE = {1.3, 1.0, 0.8, 0.65, 0.5};
+
+    // Next iteration takes about this many times the last one
+    private static final double BRANCHING_ESTIMATE = 2.0;
+
+    private long startTime;
+    private long softLimitMS;
+    private long hardLimitMS;
+    private boolean useSoftLimit;
+    private volatile long endTime;
+
+    // While pondering the search is untimed, the limits of the "go ponder" command apply from ponderhit on
+    private volatile boolean pondering;
+    private SearchLimits ponderLimits;
+    private int ponderColor;
+
+    private int lastBestMove;
+    private int stableIterations;
+
+    public synchronized void start(SearchLimits limits, int color) {
+        startTime = System.currentTimeMillis();
+        lastBestMove = 0;
+        stableIterations = 0;
+        pondering = limits.ponder;
+
+        if (pondering) {
+            ponderLimits = limits;
+            ponderColor = color;
+            setLimits(Long.MAX_VALUE, Long.MAX_VALUE, false);
+        } else {
+            allocate(limits, color);
+        }
+    }
+
+    // Exact time budget without clock handling, as used by the arena and the GUI
+    public synchronized void startFixedTime(long timeMS) {
+        startTime = System.currentTimeMillis();
+        lastBestMove = 0;
+        stableIterations = 0;
+        pondering = false;
+        setLimits(timeMS, timeMS, false);
+    }
+
+    /**
+     * The opponent played the expected move, so the clock is now running.
+     * Returns true when the search has already run as long as it would have on its own, and can stop right away.
+     */
+    public synchronized boolean ponderHit() {
+        if (!pondering) return false;
+        pondering = false;
+
+        long ponderedMS = getElapsedMS();
+        startTime = System.currentTimeMillis();
+        allocate(ponderLimits, ponderColor);
+        return useSoftLimit && ponderedMS >= getScaledSoftLimitMS();
+    }
+
+    private void allocate(SearchLimits limits, int color) {
+        if (limits.infinite || !limits.hasTimeLimit(color)) {
+            setLimits(Long.MAX_VALUE, Long.MAX_VALUE, false);
+        } else if (limits.moveTimeMS != SearchLimits.NO_LIMIT) {
+            long moveTime = Math.max(limits.moveTimeMS - MOVE_OVERHEAD_MS, 1);
+            setLimits(moveTime, moveTime, false);
+        } else {
+            long timeLeft = Math.max(limits.getTimeLeft(color) - MOVE_OVERHEAD_MS, 1);
+            int movesToGo = limits.movesToGo > 0 ? Math.min(limits.movesToGo, MAX_MOVES_TO_GO) : DEFAULT_MOVES_TO_GO;
+            long optimal = timeLeft / movesToGo + limits.getIncrement(color) * 3 / 4;
+
+            long hardLimit = Math.max(Math.min(optimal * HARD_LIMIT_FACTOR, (long) (timeLeft * MAX_CLOCK_SHARE)), 1);
+            setLimits(Math.min(optimal, hardLimit), hardLimit, true);
+        }
+    }
+
+    private void setLimits(long softLimitMS, long hardLimitMS, boolean useSoftLimit) {
+        this.softLimitMS = softLimitMS;
+        this.hardLimitMS = hardLimitMS;
+        this.useSoftLimit = useSoftLimit;
+        endTime = hardLimitMS == Long.MAX_VALUE ? Long.MAX_VALUE : startTime + hardLimitMS;
+    }
+
+    // Absolute time at which the search is aborted, read often by every search thread
+    public long getEndTime() {
+        return endTime;
+    }
+
+    // Called after every completed iteration
+    public synchronized boolean shouldStop(int bestMove, long lastIterationMS) {
+        stableIterations = bestMove == lastBestMove ? stableIterations + 1 : 0;
+        lastBestMove = bestMove;
+
+        if (pondering || hardLimitMS == Long.MAX_VALUE) return false;
+
+        long elapsed = getElapsedMS();
+        if (elapsed + lastIterationMS * BRANCHING_ESTIMATE > hardLimitMS) return true;
+        return useSoftLimit && elapsed >= getScaledSoftLimitMS();
+    }
+
+    private long getScaledSoftLimitMS() {
+        double scale = STABILITY_SCALE[Math.min(stableIterations, STABILITY_SCALE.length - 1)];
+        return (long) Math.min(softLimitMS * scale, hardLimitMS);
+    }
+
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    public long getElapsedMS() {
+        return System.currentTimeMillis() - startTime;
+    }
+}
@@ -0,0 +1,85 @@
+package arena;
+
+import com.MichaelFN.chess.arena.MatchResult;
+import com.MichaelFN.chess.arena.Sprt;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SprtTest {
+    private static final double ALPHA = 0.05;
+    private static final double BETA = 0.05;
+
+    @Test
+    public void testHalfPoints() {
+        assertEquals(2, Sprt.halfPoints(MatchResult.WHITE_WIN, true));
+        assertEquals(0, Sprt.halfPoints(MatchResult.WHITE_WIN, false));
+        assertEquals(0, Sprt.halfPoints(MatchResult.BLACK_WIN, true));
+        assertEquals(2, Sprt.halfPoints(MatchResult.BLACK_WIN, false));
+        assertEquals(1, Sprt.halfPoints(MatchResult.DRAW, true));
+        assertEquals(1, Sprt.halfPoints(MatchResult.DRAW, false));
+    }
+
+    @Test
+    public void testPentanomial() {
+        Sprt sprt = new Sprt(0, 5, ALPHA, BETA);
+        sprt.addPair(Sprt.halfPoints(MatchResult.WHITE_WIN, true) + Sprt.halfPoints(MatchResult.DRAW, false));
+        sprt.addPair(4);
+        sprt.addPair(4);
+        sprt.addPair(0);
+
+        assertArrayEquals(new int[]{1, 0, 0, 1, 2}, sprt.getPentanomial());
+        assertEquals(4, sprt.getPairs());
+
+        // A copy, the counts cannot be changed from outside
+        sprt.getPentanomial()[0] = 100;
+        assertEquals(1, sprt.getPentanomial()[0]);
+    }
+
+    @Test
+    public void testLLR() {
+        // Even score: no Elo difference, so the evidence is for H0
+        Sprt even = sprt(0, 5, 5, 10, 20, 10, 5);
+        assertEquals(0, even.getElo(), 1e-6);
+        assertEquals(-0.017255, even.getLLR(), 1e-6);
+        assertTrue(even.getEloError() > 0);
+
+        // Scoring far above both hypotheses is evidence for H1
+        Sprt ahead = sprt(0, 5, 0, 50, 100, 200, 150);
+        assertEquals(14.3187, ahead.getLLR(), 1e-4);
+        assertTrue(ahead.getElo() > 5);
+        assertEquals(Sprt.Status.ACCEPT_H1, ahead.getStatus());
+
+        Sprt behind = sprt(0, 5, 150, 200, 100, 50, 0);
+        assertEquals(-14.7841, behind.getLLR(), 1e-4);
+        assertEquals(Sprt.Status.ACCEPT_H0, behind.getStatus());
+    }
+
+    @Test
+    public void testContinueBelowMinimumPairs() {
+        Sprt sprt = new Sprt(0, 5, ALPHA, BETA);
+        for (int i = 0; i < 9; i++) sprt.addPair(4);
+
+        assertTrue(sprt.getLLR() > sprt.getUpperBound());
+        assertEquals(Sprt.Status.CONTINUE, sprt.getStatus());
+
+        sprt.addPair(4);
+        assertEquals(Sprt.Status.ACCEPT_H1, sprt.getStatus());
+    }
+
+    @Test
+    public void testBounds() {
+        Sprt sprt = new Sprt(0, 5, ALPHA, BETA);
+        assertEquals(Math.log(BETA / (1 - ALPHA)), sprt.getLowerBound(), 1e-12);
+        assertEquals(Math.log((1 - BETA) / ALPHA), sprt.getUpperBound(), 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> new Sprt(5, 0, ALPHA, BETA));
+    }
+
+    private static Sprt sprt(double elo0, double elo1, int... pentanomial) {
+        Sprt sprt = new Sprt(elo0, elo1, ALPHA, BETA);
+        for (int pairPoints = 0; pairPoints < pentanomial.length; pairPoints++) {
+            for (int i = 0; i < pentanomial[pairPoints]; i++) sprt.addPair(pairPoints);
+        }
+        return sprt;
+    }
+}
@@ -0,0 +1,67 @@
+package v5;
+
+import com.MichaelFN.chess.v5.Zobrist;
+import com.MichaelFN.chess.v5.board.Board;
+import com.MichaelFN.chess.v5.move.MoveGenerator;
+import com.MichaelFN.chess.v5.search.Evaluator;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EvaluatorTest {
+
+    @Test
+    public void testIncrementalEvaluationMatchesFullEvaluation() throws IOException {
+        Board board = new Board();
+        Evaluator evaluator = new Evaluator();
+        MoveGenerator moveGenerator = new MoveGenerator();
+        Random random = new Random(7);
+
+        InputStream inputStream = getClass().getClassLoader().getResourceAsStream("perftsuite.epd");
+        if (inputStream == null) {
+            throw new IllegalArgumentException("EPD of perft positions not found in resources!");
+        }
+
+        List<String> perftSuite;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
+            perftSuite = reader.lines().toList();
+        }
+
+        for (String perftTest : perftSuite) {
+            String FEN = perftTest.split(";")[0];
+            for (int game = 0; game < 5; game++) {
+                board.parseFEN(FEN);
+                int[] scores = new int[60];
+
+                // Random game, then take it back move by move
+                int ply = 0;
+                while (ply < scores.length) {
+                    scores[ply] = evaluator.evaluate(board);
+                    assertEquals(evaluator.evaluateFromScratch(board), scores[ply], "Evaluation differs after making a move in " + board.generateFENString());
+                    assertEquals(Zobrist.computePawnKey(board), board.pawnKey, "Pawn key differs after making a move in " + board.generateFENString());
+
+                    moveGenerator.generateLegalMoves(board, 0);
+                    int n_moves = moveGenerator.legalMoveCounts[0];
+                    if (n_moves == 0) break;
+                    board.makeMove(moveGenerator.legalMoves[0][random.nextInt(n_moves)]);
+                    ply++;
+                }
+
+                assertEquals(evaluator.evaluate(board), evaluator.evaluate(new Board(board)), "Copied board evaluates differently");
+
+                while (ply > 0) {
+                    board.unmakeMove();
+                    ply--;
+                    assertEquals(scores[ply], evaluator.evaluate(board), "Evaluation differs after unmaking a move in " + board.generateFENString());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package v5;
+
+import com.MichaelFN.chess.v5.Utils;
+import com.MichaelFN.chess.v5.move.MagicBitboards;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MagicBitboardsTest {
+
+    @Test
+    public void testMagicAttacksMatchHyperbolaQuintessence() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            // Sparse and dense occupancies
+            long occupancy = i % 2 == 0 ? random.nextLong() & random.nextLong() : random.nextLong() | random.nextLong();
+            for (int square = 0; square < 64; square++) {
+                assertEquals(Utils.getRookMovesHyperbola(square, occupancy), MagicBitboards.getRookAttacks(square, occupancy),
+                        "Rook attacks differ on square " + square);
+                assertEquals(Utils.getBishopMovesHyperbola(square, occupancy), MagicBitboards.getBishopAttacks(square, occupancy),
+                        "Bishop attacks differ on square " + square);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package v5;
+
+import com.MichaelFN.chess.v5.board.Board;
+import com.MichaelFN.chess.v5.move.Move;
+import com.MichaelFN.chess.v5.move.MoveGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.MichaelFN.chess.v5.Utils.isInCheck;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MoveGeneratorTest {
+    private final MoveGenerator moveGenerator = new MoveGenerator();
+
+    @Test
+    public void testLegalMovesMatchFilteredPseudoLegalMoves() throws IOException {
+        Board board = new Board();
+        List<String> perftSuite = readPerftSuite();
+
+        for (String perftTest : perftSuite) {
+            String FEN = perftTest.split(";")[0];
+            board.parseFEN(FEN);
+            compareRecursive(board, 2, 0, FEN);
+        }
+    }
+
+    @Test
+    public void testMoveValidationMatchesLegalMoves() throws IOException {
+        Board board = new Board();
+        List<String> perftSuite = readPerftSuite();
+
+        // Moves from every position of the suite, checked against every other position
+        List<Integer> candidates = new ArrayList<>();
+        for (String perftTest : perftSuite) {
+            board.parseFEN(perftTest.split(";")[0]);
+            moveGenerator.generatePseudoLegalMoves(board, 0);
+            for (int i = 0; i < moveGenerator.pseudoMoveCounts[0]; i++) candidates.add(moveGenerator.pseudoMoves[0][i]);
+        }
+
+        for (String perftTest : perftSuite) {
+            String FEN = perftTest.split(";")[0];
+            board.parseFEN(FEN);
+            moveGenerator.generateLegalMoves(board, 0);
+            int[] legalMoves = sortedLegalMoves(0);
+            for (int move : candidates) {
+                boolean expected = Arrays.binarySearch(legalMoves, move) >= 0;
+                boolean valid = moveGenerator.isPseudoLegal(board, move) && moveGenerator.isLegal(board, move);
+                assertEquals(expected, valid, "Validation of " + Move.toStringDebug(move) + " is wrong in " + FEN);
+            }
+        }
+    }
+
+    private void compareRecursive(Board board, int depth, int ply, String FEN) {
+        moveGenerator.generatePseudoLegalCaptures(board, ply);
+        int[] expectedCaptures = filterLegal(board, ply);
+        moveGenerator.generateLegalCaptures(board, ply);
+        assertArrayEquals(expectedCaptures, sortedLegalMoves(ply), "Legal captures differ in " + FEN);
+
+        moveGenerator.generatePseudoLegalMoves(board, ply);
+        int[] expectedMoves = filterLegal(board, ply);
+        moveGenerator.generateLegalMoves(board, ply);
+        int[] legalMoves = sortedLegalMoves(ply);
+        assertArrayEquals(expectedMoves, legalMoves, "Legal moves differ in " + FEN);
+
+        if (depth == 0) return;
+        for (int move : legalMoves) {
+            board.makeMove(move);
+            compareRecursive(board, depth - 1, ply + 1, FEN);
+            board.unmakeMove();
+        }
+    }
+
+    private int[] filterLegal(Board board, int ply) {
+        int player = board.playerToMove;
+        int[] moves = new int[moveGenerator.pseudoMoveCounts[ply]];
+        int n_moves = 0;
+        for (int i = 0; i < moves.length; i++) {
+            int move = moveGenerator.pseudoMoves[ply][i];
+            board.makeMove(move);
+            if (!isInCheck(board, player)) moves[n_moves++] = move;
+            board.unmakeMove();
+        }
+        moves = Arrays.copyOf(moves, n_moves);
+        Arrays.sort(moves);
+        return moves;
+    }
+
+    private List<String> readPerftSuite() throws IOException {
+        InputStream inputStream = getClass().getClassLoader().getResourceAsStream("perftsuite.epd");
+        if (inputStream == null) {
+            throw new IllegalArgumentException("EPD of perft positions not found in resources!");
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
+            return reader.lines().toList();
+        }
+    }
+
+    private int[] sortedLegalMoves(int ply) {
+        int[] moves = Arrays.copyOf(moveGenerator.legalMoves[ply], moveGenerator.legalMoveCounts[ply]);
+        Arrays.sort(moves);
+        return moves;
+    }
+}
@@ -0,0 +1,119 @@
+package v5;
+
+import com.MichaelFN.chess.v5.board.Board;
+import com.MichaelFN.chess.v5.move.MoveGenerator;
+import com.MichaelFN.chess.v5.nnue.NnueEvaluator;
+import com.MichaelFN.chess.v5.nnue.NnueKernels;
+import com.MichaelFN.chess.v5.nnue.NnueNetwork;
+import com.MichaelFN.chess.v5.nnue.ScalarKernels;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class NnueTest {
+    private static final String[] FENS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+    };
+
+    private final NnueNetwork network = NnueNetwork.random(7);
+
+    @Test
+    public void testSaveAndLoad(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("random.nnue");
+        network.save(file);
+
+        NnueEvaluator original = new NnueEvaluator(network, new ScalarKernels());
+        NnueEvaluator loaded = new NnueEvaluator(NnueNetwork.load(file), new ScalarKernels());
+        Board board = new Board();
+        for (String FEN : FENS) {
+            board.parseFEN(FEN);
+            assertEquals(original.evaluateFromScratch(board), loaded.evaluateFromScratch(board));
+        }
+    }
+
+    @Test
+    public void testIncrementalUpdatesMatchRefresh() {
+        NnueEvaluator evaluator = new NnueEvaluator(network);
+        MoveGenerator moveGenerator = new MoveGenerator();
+        Random random = new Random(7);
+        Board board = new Board();
+
+        for (String FEN : FENS) {
+            board.parseFEN(FEN);
+
+            // Longer than the accumulator stack, so entries that were not kept up to date are recomputed too
+            int[] scores = new int[200];
+            int ply = 0;
+            while (true) {
+                scores[ply] = evaluator.evaluate(board);
+                assertEquals(evaluator.evaluateFromScratch(board), scores[ply], "Evaluation differs after making a move in " + board.generateFENString());
+
+                moveGenerator.generateLegalMoves(board, 0);
+                int n_moves = moveGenerator.legalMoveCounts[0];
+                if (n_moves == 0 || board.fiftyMoveRule() || ply == scores.length - 1) break;
+                board.makeMove(moveGenerator.legalMoves[0][random.nextInt(n_moves)]);
+                ply++;
+            }
+
+            assertEquals(scores[ply], evaluator.evaluate(new Board(board)), "Copied board evaluates differently");
+
+            while (ply > 0) {
+                board.unmakeMove();
+                ply--;
+                assertEquals(scores[ply], evaluator.evaluate(board), "Evaluation differs after unmaking a move in " + board.generateFENString());
+            }
+        }
+    }
+
+    @Test
+    public void testSearchAfterResetToRoot() {
+        NnueEvaluator evaluator = new NnueEvaluator(network);
+        MoveGenerator moveGenerator = new MoveGenerator();
+        Random random = new Random(7);
+        Board board = new Board();
+        board.parseFEN(FENS[0]);
+
+        // Game moves made on the board push like search plies
+        evaluator.evaluate(board);
+        for (int i = 0; i < 40; i++) {
+            moveGenerator.generateLegalMoves(board, 0);
+            if (moveGenerator.legalMoveCounts[0] == 0) break;
+            board.makeMove(moveGenerator.legalMoves[0][random.nextInt(moveGenerator.legalMoveCounts[0])]);
+        }
+
+        board.accumulator.resetToRoot();
+        int rootScore = evaluator.evaluate(board);
+        assertEquals(evaluator.evaluateFromScratch(board), rootScore);
+
+        moveGenerator.generateLegalMoves(board, 0);
+        for (int i = 0; i < moveGenerator.legalMoveCounts[0]; i++) {
+            board.makeMove(moveGenerator.legalMoves[0][i]);
+            assertEquals(evaluator.evaluateFromScratch(board), evaluator.evaluate(board), "Evaluation differs in " + board.generateFENString());
+            board.unmakeMove();
+            assertEquals(rootScore, evaluator.evaluate(board));
+        }
+    }
+
+    @Test
+    public void testPreferredKernelsMatchScalarKernels() {
+        // The vectorized kernels with -Pvector, otherwise create() falls back to the scalar ones
+        NnueEvaluator vector = new NnueEvaluator(network, NnueKernels.create(true));
+        NnueEvaluator scalar = new NnueEvaluator(network, new ScalarKernels());
+
+        Board vectorBoard = new Board();
+        Board scalarBoard = new Board();
+        for (String FEN : FENS) {
+            vectorBoard.parseFEN(FEN);
+            scalarBoard.parseFEN(FEN);
+            assertEquals(scalar.evaluate(scalarBoard), vector.evaluate(vectorBoard));
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package v5;
 
+import com.MichaelFN.chess.common.ParallelPerft;
 import com.MichaelFN.chess.common.Perft;
+import com.MichaelFN.chess.common.PerftTable;
 import com.MichaelFN.chess.v5.board.Board;
 import org.junit.jupiter.api.Test;
 
@@ -42,4 +44,50 @@ public class PerftTest {
             }
         }
     }
+
+    @Test
+    public void testParallelPerft() {
+        ParallelPerft parallelPerft = new ParallelPerft(4);
+        Board board = new Board();
+        assertEquals(197281, parallelPerft.perft(board, 4));
+
+        board.parseFEN("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        assertEquals(4085603, parallelPerft.perft(board, 4));
+
+        int[] moves = parallelPerft.rootMoves(board);
+        long total = 0;
+        for (long nodes : parallelPerft.divide(board, 3, moves)) total += nodes;
+        assertEquals(97862, total);
+        parallelPerft.shutdown();
+    }
+
+    // Every depth of every position in the suite, which is only fast enough with the perft table
+    @Test
+    public void testHashedPerftFullSuite() throws IOException {
+        Board board = new Board();
+        PerftTable perftTable = new PerftTable(256);
+
+        InputStream inputStream = getClass().getClassLoader().getResourceAsStream("perftsuite.epd");
+        if (inputStream == null) {
+            throw new IllegalArgumentException("EPD of perft positions not found in resources!");
+        }
+
+        List<String> perftSuite;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
+            perftSuite = reader.lines().toList();
+        }
+
+        for (String perftTest : perftSuite) {
+            String[] sections = perftTest.split(";");
+            String FEN = sections[0];
+            board.parseFEN(FEN);
+            for (int i = 1; i < sections.length; i++) {
+                String[] test = sections[i].trim().split(" ");
+                int depth = Integer.parseInt(test[0].substring(1));
+                long expectedNodes = Long.parseLong(test[1]);
+                long computedNodes = Perft.hashedPerft(board, depth, perftTable);
+                assertEquals(expectedNodes, computedNodes, "Hashed perft test failed on depth " + depth + " in the following position: " + FEN);
+            }
+        }
+    }
 }
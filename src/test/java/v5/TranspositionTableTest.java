@@ -0,0 +1,95 @@
+package v5;
+
+import com.MichaelFN.chess.v5.search.TTEntry;
+import com.MichaelFN.chess.v5.search.TranspositionTable;
+import com.MichaelFN.chess.v5.move.Move;
+import org.junit.jupiter.api.Test;
+
+import static com.MichaelFN.chess.v5.board.Bitboard.*;
+import static com.MichaelFN.chess.v5.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void testPackedEntryRoundTrip() {
+        int move = Move.createPromotionCapture(B7, A8, QUEEN);
+        long entry = TTEntry.pack(12, -99999990, TTEntry.UPPERBOUND, move);
+        assertEquals(12, TTEntry.getDepth(entry));
+        assertEquals(-99999990, TTEntry.getScore(entry));
+        assertEquals(TTEntry.UPPERBOUND, TTEntry.getFlag(entry));
+        assertEquals(move, TTEntry.getBestMove(entry));
+
+        // Depth is capped instead of overflowing into the flag bits
+        entry = TTEntry.pack(100, Integer.MAX_VALUE - 1, TTEntry.LOWERBOUND, 0);
+        assertEquals(TTEntry.MAX_DEPTH, TTEntry.getDepth(entry));
+        assertEquals(Integer.MAX_VALUE - 1, TTEntry.getScore(entry));
+        assertEquals(TTEntry.LOWERBOUND, TTEntry.getFlag(entry));
+    }
+
+    @Test
+    public void testPutAndGet() {
+        TranspositionTable transpositionTable = new TranspositionTable(1);
+        long key = 0x1234567890ABCDEFL;
+        int move = Move.createQuietMove(G1, F3);
+
+        assertEquals(TranspositionTable.NO_ENTRY, transpositionTable.get(key));
+
+        transpositionTable.put(key, 5, 42, TTEntry.EXACT, move);
+        long entry = transpositionTable.get(key);
+        assertEquals(5, TTEntry.getDepth(entry));
+        assertEquals(42, TTEntry.getScore(entry));
+        assertEquals(move, TTEntry.getBestMove(entry));
+
+        // Same index, different key: must not be returned as a hit
+        long otherKey = key ^ (1L << 63);
+        assertEquals(TranspositionTable.NO_ENTRY, transpositionTable.get(otherKey));
+
+        transpositionTable.clear();
+        assertEquals(TranspositionTable.NO_ENTRY, transpositionTable.get(key));
+    }
+
+    @Test
+    public void testBucketKeepsCollidingEntries() {
+        TranspositionTable transpositionTable = new TranspositionTable(1);
+
+        // Keys differing only in the upper bits map to the same bucket
+        long[] keys = new long[4];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 0xABCDL | ((long) (i + 1) << 48);
+            int depth = i < 3 ? 10 : 1;
+            transpositionTable.put(keys[i], depth, 100 + i, TTEntry.EXACT, 0);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(100 + i, TTEntry.getScore(transpositionTable.get(keys[i])));
+        }
+
+        // A shallow entry goes to the always-replace slot instead of evicting a deep one
+        long shallowKey = 0xABCDL | (9L << 48);
+        transpositionTable.put(shallowKey, 1, 99, TTEntry.EXACT, 0);
+        assertEquals(99, TTEntry.getScore(transpositionTable.get(shallowKey)));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(100 + i, TTEntry.getScore(transpositionTable.get(keys[i])));
+        }
+        assertEquals(TranspositionTable.NO_ENTRY, transpositionTable.get(keys[3]));
+    }
+
+    @Test
+    public void testOldEntriesAreReplaced() {
+        TranspositionTable transpositionTable = new TranspositionTable(1);
+        long[] deepKeys = new long[3];
+        for (int i = 0; i < deepKeys.length; i++) {
+            deepKeys[i] = 0x1111L | ((long) (i + 1) << 48);
+            transpositionTable.put(deepKeys[i], 20, 100 + i, TTEntry.EXACT, 0);
+        }
+
+        // Many searches later the deep entries are worth less than a fresh shallow one
+        for (int i = 0; i < 10; i++) transpositionTable.newSearch();
+        long key = 0x1111L | (7L << 48);
+        long otherKey = 0x1111L | (8L << 48);
+        transpositionTable.put(key, 2, 5, TTEntry.EXACT, 0);
+        transpositionTable.put(otherKey, 2, 6, TTEntry.EXACT, 0);
+        assertEquals(5, TTEntry.getScore(transpositionTable.get(key)));
+        assertEquals(6, TTEntry.getScore(transpositionTable.get(otherKey)));
+    }
+}
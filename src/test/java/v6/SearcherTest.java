@@ -0,0 +1,61 @@
+package v6;
+
+import com.MichaelFN.chess.common.SearchLimits;
+import com.MichaelFN.chess.v5.Utils;
+import com.MichaelFN.chess.v5.board.Board;
+import com.MichaelFN.chess.v5.board.BoardInitializer;
+import com.MichaelFN.chess.v5.search.Evaluator;
+import com.MichaelFN.chess.v6.Searcher;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearcherTest {
+    private static final int HASH_SIZE_MB = 16;
+
+    @Test
+    public void testStalemateWithQueensIsNotNullMovePruned() {
+        // White is in check and Kb5 is the only move. It stalemates black, which is far ahead and still has its queen,
+        // so a null move at the stalemated node would fail high instead of returning the draw.
+        Board board = board("qrb5/kp1p4/1p1P4/2KP4/1PPP4/8/8/8 w - - 0 1");
+        Searcher searcher = new Searcher(new Evaluator(), HASH_SIZE_MB);
+
+        assertEquals("c5b5", Utils.moveToUci(searcher.search(board, depthLimit(6))));
+        assertEquals(0, searcher.getStats().nullMoveAttempts);
+    }
+
+    @Test
+    public void testMultiPVWithMoreLinesThanLegalMoves() {
+        // Ra8 mates, the other lines are all the remaining legal moves
+        Board board = board("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+        Searcher searcher = new Searcher(new Evaluator(), HASH_SIZE_MB);
+        searcher.setSearchOutput(false);
+        searcher.setMultiPV(Searcher.MAX_MULTI_PV);
+
+        assertEquals("a1a8", Utils.moveToUci(searcher.search(board, depthLimit(4))));
+    }
+
+    @Test
+    public void testMultiPVOnMatedRootReturnsNoMove() {
+        Searcher searcher = new Searcher(new Evaluator(), HASH_SIZE_MB);
+        searcher.setSearchOutput(false);
+        searcher.setMultiPV(3);
+        assertNotEquals(0, searcher.search(board(BoardInitializer.START_POS), depthLimit(4)));
+
+        // Fool's mate, the lines of the previous search must not be returned
+        Board board = board("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3");
+        assertEquals(0, searcher.search(board, depthLimit(4)));
+    }
+
+    private static SearchLimits depthLimit(int depth) {
+        SearchLimits limits = new SearchLimits();
+        limits.depth = depth;
+        return limits;
+    }
+
+    private static Board board(String FEN) {
+        Board board = new Board();
+        board.parseFEN(FEN);
+        return board;
+    }
+}
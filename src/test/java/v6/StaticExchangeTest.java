@@ -0,0 +1,59 @@
+package v6;
+
+import com.MichaelFN.chess.v5.board.Board;
+import com.MichaelFN.chess.v5.move.Move;
+import com.MichaelFN.chess.v6.StaticExchange;
+import org.junit.jupiter.api.Test;
+
+import static com.MichaelFN.chess.v5.board.Bitboard.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StaticExchangeTest {
+    private static final int PAWN = 82;
+    private static final int KNIGHT = 337;
+    private static final int ROOK = 477;
+    private static final int QUEEN = 1025;
+
+    private final StaticExchange staticExchange = new StaticExchange();
+
+    @Test
+    public void testSimpleExchanges() {
+        // Undefended pawn
+        assertEquals(PAWN, see("1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1", E1, E5));
+
+        // Pawn for pawn
+        assertEquals(0, see("4k3/8/2p5/3p4/4P3/8/8/4K3 w - - 0 1", E4, D5));
+
+        // Queen takes a pawn defended by a pawn
+        assertEquals(PAWN - QUEEN, see("4k3/8/2p5/3p4/8/8/8/3QK3 w - - 0 1", D1, D5));
+        assertFalse(staticExchange.isNonLosing(board("4k3/8/2p5/3p4/8/8/8/3QK3 w - - 0 1"), Move.createCapture(D1, D5)));
+    }
+
+    @Test
+    public void testXRayAttackers() {
+        // The queen behind the rook recaptures
+        assertEquals(PAWN, see("4k3/3r4/8/3p4/8/8/3R4/3QK3 w - - 0 1", D2, D5));
+
+        // Doubled rooks on both sides: white gives two rooks for a pawn and a rook
+        assertEquals(PAWN - ROOK, see("3rk3/3r4/8/3p4/8/8/3R4/3RK3 w - - 0 1", D2, D5));
+
+        // Knight takes a pawn, black recaptures and the sliders behind both sides join in
+        assertEquals(PAWN - KNIGHT, see("1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - - 0 1", D3, E5));
+    }
+
+    @Test
+    public void testKingCanNotRecaptureDefendedPiece() {
+        // Rook takes a pawn next to the king, the king can not take back because the other rook also attacks the square
+        assertEquals(PAWN, see("3R4/8/8/8/8/4k3/3p4/3R3K w - - 0 1", D1, D2));
+    }
+
+    private int see(String FEN, int from, int to) {
+        return staticExchange.evaluate(board(FEN), Move.createCapture(from, to));
+    }
+
+    private static Board board(String FEN) {
+        Board board = new Board();
+        board.parseFEN(FEN);
+        return board;
+    }
+}
@@ -0,0 +1,113 @@
+package v6;
+
+import com.MichaelFN.chess.common.SearchLimits;
+import com.MichaelFN.chess.v6.TimeManager;
+import org.junit.jupiter.api.Test;
+
+import static com.MichaelFN.chess.v6.TimeManager.MOVE_OVERHEAD_MS;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeManagerTest {
+    private static final int WHITE = 0;
+    private static final int MOVE = 1;
+    private static final int OTHER_MOVE = 2;
+
+    @Test
+    public void testMoveTime() {
+        TimeManager timeManager = new TimeManager();
+        SearchLimits limits = limits("go movetime 1000");
+        assertHardLimit(timeManager, limits, 1000 - MOVE_OVERHEAD_MS);
+
+        // No soft limit, only an iteration that cannot finish in time stops the search
+        assertFalse(timeManager.shouldStop(MOVE, 10));
+        assertFalse(timeManager.shouldStop(MOVE, 10));
+        assertTrue(timeManager.shouldStop(MOVE, 500));
+    }
+
+    @Test
+    public void testClockWithoutMovesToGo() {
+        // Optimal time 59970 / 30 + 1000 * 3 / 4 = 2749, hard limit 4 times that
+        TimeManager timeManager = new TimeManager();
+        assertHardLimit(timeManager, limits("go wtime 60000 btime 1000 winc 1000 binc 0"), 4 * 2749);
+        assertFalse(timeManager.shouldStop(MOVE, 10));
+
+        // The hard limit is capped at a share of the clock
+        assertHardLimit(timeManager, limits("go wtime 1030 btime 60000 winc 2000"), (long) (1000 * 0.75));
+    }
+
+    @Test
+    public void testClockWithMovesToGo() {
+        // Optimal time 9970 / 10 = 997, hard limit 4 times that
+        TimeManager timeManager = new TimeManager();
+        assertHardLimit(timeManager, limits("go wtime 10000 btime 10000 movestogo 10"), 4 * 997);
+
+        // The time is split over at most 50 moves
+        assertHardLimit(timeManager, limits("go wtime 10000 btime 10000 movestogo 200"), 4 * (9970 / 50));
+    }
+
+    @Test
+    public void testSoftLimitShrinksWhenTheBestMoveIsStable() throws InterruptedException {
+        // Optimal time 3000 / 30 = 100, the soft limit is 130 while the best move changes and 50 once it is stable
+        TimeManager timeManager = new TimeManager();
+        timeManager.start(limits("go wtime 3030 btime 3030"), WHITE);
+        Thread.sleep(60);
+
+        assertFalse(timeManager.shouldStop(MOVE, 0));
+        for (int i = 0; i < 3; i++) timeManager.shouldStop(MOVE, 0);
+        assertTrue(timeManager.shouldStop(MOVE, 0));
+
+        // A new best move gets more time again
+        assertFalse(timeManager.shouldStop(OTHER_MOVE, 0));
+    }
+
+    @Test
+    public void testInfinite() {
+        TimeManager timeManager = new TimeManager();
+        timeManager.start(limits("go infinite wtime 1000 btime 1000"), WHITE);
+        assertEquals(Long.MAX_VALUE, timeManager.getEndTime());
+        assertFalse(timeManager.shouldStop(MOVE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testPonderHit() {
+        TimeManager timeManager = new TimeManager();
+        timeManager.start(limits("go ponder movetime 1000"), WHITE);
+        assertTrue(timeManager.isPondering());
+        assertEquals(Long.MAX_VALUE, timeManager.getEndTime());
+        assertFalse(timeManager.shouldStop(MOVE, Integer.MAX_VALUE));
+
+        // The limits of the go command apply from the ponderhit on
+        long before = System.currentTimeMillis();
+        assertFalse(timeManager.ponderHit());
+        long after = System.currentTimeMillis();
+        assertFalse(timeManager.isPondering());
+        assertBetween(before + 1000 - MOVE_OVERHEAD_MS, after + 1000 - MOVE_OVERHEAD_MS, timeManager.getEndTime());
+
+        // Only the first ponderhit counts
+        assertFalse(timeManager.ponderHit());
+    }
+
+    @Test
+    public void testPonderHitAfterPonderingLongEnough() throws InterruptedException {
+        // Soft limit 130 on the clock, so pondering longer than that has already used the time of this move
+        TimeManager timeManager = new TimeManager();
+        timeManager.start(limits("go ponder wtime 3030 btime 3030"), WHITE);
+        Thread.sleep(150);
+        assertTrue(timeManager.ponderHit());
+    }
+
+    private static void assertHardLimit(TimeManager timeManager, SearchLimits limits, long hardLimitMS) {
+        long before = System.currentTimeMillis();
+        timeManager.start(limits, WHITE);
+        long after = System.currentTimeMillis();
+        assertBetween(before + hardLimitMS, after + hardLimitMS, timeManager.getEndTime());
+    }
+
+    private static void assertBetween(long min, long max, long actual) {
+        assertTrue(actual >= min && actual <= max, actual + " is not between " + min + " and " + max);
+    }
+
+    private static SearchLimits limits(String go) {
+        return SearchLimits.parseGo(go.split(" "));
+    }
+}
@@ -0,0 +1,65 @@
+package com.MichaelFN.chess.v5.nnue;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import static com.MichaelFN.chess.v5.nnue.NnueNetwork.ACTIVATION_MAX;
+import static com.MichaelFN.chess.v5.nnue.NnueNetwork.HIDDEN_SIZE;
+
+public class VectorKernels implements NnueKernels {
+    /**
+     * Only compiled in the vector profile and only loaded when jdk.incubator.vector is present, see NnueKernels.create().
+     * HIDDEN_SIZE is a multiple of every vector length, so there is no scalar tail loop.
+     *
+     * Activation times weight is at most 127 * 128 and fits in a short, so the products are computed in int16 lanes
+     * and only widened to int32 for the sum.
+     */
+
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    static {
+        if (HIDDEN_SIZE % SHORTS.length() != 0) {
+            throw new IllegalStateException("Hidden size " + HIDDEN_SIZE + " is not a multiple of " + SHORTS.length() + " lanes");
+        }
+    }
+
+    @Override
+    public void add(short[] accumulator, short[] weights, int offset) {
+        for (int i = 0; i < HIDDEN_SIZE; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, i)
+                    .add(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(accumulator, i);
+        }
+    }
+
+    @Override
+    public void subtract(short[] accumulator, short[] weights, int offset) {
+        for (int i = 0; i < HIDDEN_SIZE; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, i)
+                    .sub(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(accumulator, i);
+        }
+    }
+
+    @Override
+    public int dot(short[] accumulator, short[] weights, int offset) {
+        IntVector sum = IntVector.zero(INTS);
+        for (int i = 0; i < HIDDEN_SIZE; i += SHORTS.length()) {
+            ShortVector products = ShortVector.fromArray(SHORTS, accumulator, i)
+                    .max((short) 0)
+                    .min((short) ACTIVATION_MAX)
+                    .mul(ShortVector.fromArray(SHORTS, weights, offset + i));
+            sum = sum.add(products.convert(VectorOperators.S2I, 0))
+                    .add(products.convert(VectorOperators.S2I, 1));
+        }
+        return sum.reduceLanes(VectorOperators.ADD);
+    }
+
+    @Override
+    public String getName() {
+        return "vector " + SHORTS.vectorBitSize() + " bit";
+    }
+}